@@ -0,0 +1,139 @@
+package org.fastj.csv;
+
+/**
+ * 加入方言之前的逗号循环, 仅用于对比(The comma loops before dialects were added, for comparison only)
+ *
+ * <p>
+ * 与原Util.parseCSVLine / parseCSVMatrix / getCSVFieldString相同(Same as the original Util.parseCSVLine / parseCSVMatrix /
+ * getCSVFieldString).
+ */
+final class BaselineLoops {
+
+	private BaselineLoops() {
+	}
+
+	static String[] parseCSVLine(CharBuf line, CharBuf fieldBuf, int len, int[] cols) {
+
+		String[] rlt = new String[len];
+		char[] buf = line.value;
+		int buflen = line.count;
+		int fcnt = -1;
+		int setc = 0;
+		int nc = 0;
+
+		for (; nc < buflen && setc < len;) {
+			byte bit = 0x00;
+			char c = 0;
+			int i = nc;
+			for (; i < buflen; i++) {
+				c = buf[i];
+				if (c > ',') {
+					continue;
+				}
+				if (c == '"') {
+					bit ^= 0x01;
+					continue;
+				}
+				if (c == ',') {
+					if (bit == 0) {
+						break;
+					}
+				}
+			}
+
+			fcnt++;
+			int idx = cols[fcnt];
+			if (idx >= 0) {
+				rlt[idx] = getCSVFieldString(fieldBuf, buf, nc, i - 1);
+				setc++;
+			}
+
+			nc = ++i;
+		}
+
+		if (setc == len - 1) {
+			int idx = cols[++fcnt];
+			rlt[idx] = "";
+		}
+
+		return rlt;
+	}
+
+	static double[] parseCSVMatrix(CharBuf line, int len, int[] cols) {
+		double[] rlt = new double[len];
+		char[] buf = line.value;
+		int buflen = line.count;
+		int fcnt = -1;
+		int setc = 0;
+		int nc = 0;
+
+		for (; nc < buflen && setc < len;) {
+			byte bit = 0x00;
+			char c = 0;
+			int i = nc;
+			for (; i < buflen; i++) {
+				c = buf[i];
+				if (c > ',') {
+					continue;
+				}
+				if (c == '"') {
+					bit ^= 0x01;
+					continue;
+				}
+				if (c == ',') {
+					if (bit == 0) {
+						break;
+					}
+				}
+			}
+
+			fcnt++;
+			int idx = cols[fcnt];
+			if (idx >= 0) {
+				rlt[idx] = Double.parseDouble(new String(line.value, nc, i - nc));
+				setc++;
+			}
+
+			nc = ++i;
+		}
+
+		if (setc == len - 1) {
+			int idx = cols[++fcnt];
+			rlt[idx] = 0.0;
+		}
+
+		return rlt;
+	}
+
+	private static String getCSVFieldString(CharBuf field, char[] value, int start, int end) {
+
+		if (value[start] != '"') {
+			return new String(value, start, end - start + 1);
+		} else {
+			start++;
+			end--;
+		}
+
+		field.reset();
+		char c = 0;
+		int copyStart = start;
+		int i = start;
+		for (; i <= end;) {
+			c = value[i];
+			if (c != '"') {
+				i++;
+			} else {
+				field.append(value, copyStart, i - copyStart + 1);
+				i += 2;
+				copyStart = i;
+			}
+		}
+
+		if (i > copyStart) {
+			field.append(value, copyStart, i - copyStart);
+		}
+
+		return field.toStringAndReset();
+	}
+
+}
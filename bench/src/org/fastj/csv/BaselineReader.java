@@ -0,0 +1,144 @@
+package org.fastj.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 加入方言之前的ChannelReader切行循环, 仅用于对比(The ChannelReader line loop before dialects were added, for comparison only)
+ *
+ * <p>
+ * 只保留字节流读取: 32KB缓冲区, 引号和换行硬编码(Byte channel reads only: 32KB buffer, quote and line breaks hardcoded).
+ */
+final class BaselineReader implements Closeable {
+	private static final int SIZE = 8192 * 4;
+
+	private byte[] buf = new byte[SIZE];
+	private ReadableByteChannel fch;
+	private int cnt, nc;
+	private final ByteBuf bbuf = ByteBuf.POOL.get();
+	private final ByteBuffer cache = ByteBuffer.wrap(buf, 0, buf.length);
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+	BaselineReader(ReadableByteChannel ch) {
+		this.fch = ch;
+	}
+
+	CharBuf readLine(CharBuf cbuf) throws IOException {
+		synchronized (this) {
+			ByteBuf buf = readLine0();
+			if (buf == null) {
+				return null;
+			}
+			cbuf = b2c(buf, cbuf);
+			return cbuf;
+		}
+	}
+
+	private ByteBuf readLine0() throws IOException {
+		ByteBuf chs = bbuf;
+		chs.reset();
+		int startChar;
+
+		byte bit = 0x00;
+		for (;;) {
+			if (nc >= cnt)
+				fill();
+
+			if (nc >= cnt) {
+				if (chs.length() > 0)
+					return chs;
+				else
+					return null;
+			}
+			boolean eol = false;
+			byte c = 0;
+			int i;
+
+			for (i = nc; i < cnt; i++) {
+				c = buf[i];
+				if (c > '"' || c < 0) {
+					continue;
+				}
+				if (c == '"') {
+					bit ^= 0x01;
+					continue;
+				}
+				if ((c == '\n') || (c == '\r')) {
+					if (bit == 0) {
+						eol = true;
+						break;
+					}
+				}
+			}
+
+			startChar = nc;
+			nc = i;
+
+			if (eol) {
+				chs.append(buf, startChar, i - startChar);
+				nc++;
+
+				if (nc >= cnt)
+					fill();
+
+				if (c == '\r' && (buf[nc] == '\n')) {
+					nc++;
+				}
+
+				return chs;
+			}
+
+			chs.append(buf, startChar, i - startChar);
+		}
+	}
+
+	private final CharBuf b2c(ByteBuf bbuf, CharBuf cbuf) throws IOException {
+		cbuf = cbuf == null ? CharBuf.POOL.get() : cbuf;
+		cbuf.reset();
+		ByteBuffer bb = ByteBuffer.wrap(bbuf.value, 0, bbuf.count);
+		cbuf.ensureCapacity(bbuf.count);
+		CharBuffer cb = CharBuffer.wrap(cbuf.value, 0, cbuf.capacity);
+		cb.clear();
+
+		CoderResult cr = decoder.decode(bb, cb, true);
+		if (cr.isError()) {
+			cr.throwException();
+		}
+		cbuf.count = cb.position();
+
+		return cbuf;
+	}
+
+	private void fill() throws IOException {
+		cache.clear();
+		int n = fch.read(cache);
+		while (n == 0) {
+			n = fch.read(cache);
+		}
+		if (n > 0) {
+			cnt = n;
+			nc = 0;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (fch == null)
+				return;
+			try {
+				fch.close();
+				ByteBuf.POOL.release(bbuf);
+			} finally {
+				fch = null;
+				buf = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package org.fastj.csv;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 默认逗号方言与加入方言之前的循环对比, 均为内存数据、单线程(The default comma dialect against the loops before dialects were
+ * added, in memory and single threaded)
+ *
+ * <p>
+ * 每对xxx与xxxBaseline处理相同的数据, 分数接近即默认方言没有变慢(Each xxx and xxxBaseline pair handles the same data, close
+ * scores mean the default dialect did not slow down). 文本列含带逗号和转义引号的字段(The text columns include fields with commas
+ * and escaped quotes).
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar DialectBench
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class DialectBench {
+
+	static final String[] HEADER = { "id", "name", "note", "v1", "v2", "v3", "v4", "v5" };
+	/** 读取一半的列, 其余跳过(Half the columns are read, the rest skipped) */
+	static final String[] COLS = { "id", "note", "v2", "v4" };
+
+	@Param({ "100000" })
+	int rows;
+
+	byte[] text;
+	byte[] numbers;
+	CharBuf[] lines;
+	CharBuf[] numberLines;
+	int[] idxmap;
+	int olen;
+
+	final CharBuf line = new CharBuf(256);
+	final CharBuf field = new CharBuf(64);
+
+	@Setup
+	public void setup() throws IOException {
+		Random rnd = new Random(42);
+		StringBuilder t = new StringBuilder();
+		StringBuilder n = new StringBuilder();
+		for (int i = 0; i < rows; i++) {
+			t.append(i).append(",name").append(rnd.nextInt(1000)).append(',');
+			switch (i % 3) {
+			case 0:
+				t.append("plain note");
+				break;
+			case 1:
+				t.append("\"with, comma\"");
+				break;
+			default:
+				t.append("\"say \"\"hi\"\"\"");
+			}
+			for (int k = 0; k < 5; k++) {
+				t.append(',').append(rnd.nextDouble() * 1000);
+			}
+			t.append('\n');
+			for (int k = 0; k < HEADER.length; k++) {
+				n.append(k == 0 ? "" : ",").append(rnd.nextDouble() * 1000);
+			}
+			n.append('\n');
+		}
+		text = t.toString().getBytes(StandardCharsets.UTF_8);
+		numbers = n.toString().getBytes(StandardCharsets.UTF_8);
+		lines = readAll(text);
+		numberLines = readAll(numbers);
+
+		int[] vidx = Util.createVidx(HEADER, COLS);
+		idxmap = Util.createIdxMap(HEADER.length, vidx);
+		olen = vidx.length;
+	}
+
+	private static CharBuf[] readAll(byte[] data) throws IOException {
+		List<CharBuf> l = new ArrayList<>();
+		try (ChannelReader r = new ChannelReader(Channels.newChannel(new ByteArrayInputStream(data)), -1, StandardCharsets.UTF_8)) {
+			CharBuf c = new CharBuf(256);
+			while ((c = r.readLine(c)) != null) {
+				// 不用copy: 池中的缓冲区有限(Not copy: the pool holds a limited number of buffers)
+				CharBuf k = new CharBuf(c.count);
+				k.append(c.value, 0, c.count);
+				l.add(k);
+			}
+		}
+		return l.toArray(new CharBuf[0]);
+	}
+
+	@Benchmark
+	public int readLines() throws IOException {
+		int n = 0;
+		try (ChannelReader r = new ChannelReader(Channels.newChannel(new ByteArrayInputStream(text)), -1, StandardCharsets.UTF_8)) {
+			r.dialect(CsvDialect.DEFAULT);
+			while (r.readLine(line) != null) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	@Benchmark
+	public int readLinesBaseline() throws IOException {
+		int n = 0;
+		try (BaselineReader r = new BaselineReader(Channels.newChannel(new ByteArrayInputStream(text)))) {
+			while (r.readLine(line) != null) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	@Benchmark
+	public void parseLine(Blackhole bh) {
+		for (CharBuf l : lines) {
+			bh.consume(Util.parseCSVLine(l, field, olen, idxmap, CsvDialect.DEFAULT));
+		}
+	}
+
+	@Benchmark
+	public void parseLineBaseline(Blackhole bh) {
+		for (CharBuf l : lines) {
+			bh.consume(BaselineLoops.parseCSVLine(l, field, olen, idxmap));
+		}
+	}
+
+	@Benchmark
+	public void parseMatrix(Blackhole bh) {
+		for (CharBuf l : numberLines) {
+			bh.consume(Util.parseCSVMatrix(l, olen, idxmap, CsvDialect.DEFAULT));
+		}
+	}
+
+	@Benchmark
+	public void parseMatrixBaseline(Blackhole bh) {
+		for (CharBuf l : numberLines) {
+			bh.consume(BaselineLoops.parseCSVMatrix(l, olen, idxmap));
+		}
+	}
+
+}
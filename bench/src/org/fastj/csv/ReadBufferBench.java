@@ -0,0 +1,133 @@
+package org.fastj.csv;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 页缓存冷、热两种情况下各读缓冲区切行读完整个文件的时间(Time to read and split a whole file with each read buffer, with a cold
+ * and a warm page cache)
+ *
+ * <p>
+ * 冷: 每次迭代前执行-Ddrop指定的命令清空页缓存, 默认需要root(Cold: the command given by -Ddrop empties the page cache before
+ * every iteration, the default needs root). 热: 每次迭代前先完整读一遍文件(Warm: the file is read once before every
+ * iteration). 文件放在-Ddir目录下, 默认java.io.tmpdir; 需是磁盘上的目录, tmpfs上没有冷读(The file goes to the -Ddir directory,
+ * java.io.tmpdir by default; it must be on disk, tmpfs has no cold reads).
+ *
+ * <pre>
+ * sudo java -Ddir=/data -jar target/benchmarks.jar ReadBufferBench
+ * java -Ddir=/data -Ddrop="sudo sh -c 'sync; echo 1 &gt; /proc/sys/vm/drop_caches'" -jar target/benchmarks.jar ReadBufferBench
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 8)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx512m" })
+@State(Scope.Benchmark)
+public class ReadBufferBench {
+
+	static final String DROP = "sync; echo 1 > /proc/sys/vm/drop_caches";
+
+	/** 原32KB堆缓冲区, 直接缓冲区, 加预读, 加O_DIRECT(The original 32KB heap buffer, direct buffers, with read-ahead, with O_DIRECT) */
+	@Param({ "heap32k", "direct1m", "direct1mAhead", "direct16mAhead", "bypass16mAhead" })
+	String buffer;
+
+	@Param({ "cold", "warm" })
+	String cache;
+
+	@Param({ "1024" })
+	int mb;
+
+	String file;
+	ReadBuffer rb;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		switch (buffer) {
+		case "heap32k":
+			rb = ReadBuffer.DEFAULT;
+			break;
+		case "direct1m":
+			rb = new ReadBuffer(1 << 20, false);
+			break;
+		case "direct1mAhead":
+			rb = new ReadBuffer(1 << 20, true);
+			break;
+		case "direct16mAhead":
+			rb = new ReadBuffer(16 << 20, true);
+			break;
+		default:
+			rb = new ReadBuffer(16 << 20, true, true);
+		}
+		File f = new File(System.getProperty("dir", System.getProperty("java.io.tmpdir")), "fastcsv-bench-" + mb + "m.csv");
+		long size = (long) mb << 20;
+		if (!f.exists() || f.length() < size) {
+			write(f, size);
+		}
+		file = f.getPath();
+	}
+
+	private static void write(File f, long size) throws IOException {
+		Random rnd = new Random(42);
+		long n = 0;
+		try (BufferedWriter w = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+			w.write("id,name,v1,v2,v3,v4\n");
+			for (long i = 0; n < size; i++) {
+				String line = i + ",name" + rnd.nextInt(1000) + ',' + rnd.nextDouble() + ',' + rnd.nextDouble() + ',' + rnd.nextInt() + ','
+						+ rnd.nextLong() + '\n';
+				w.write(line);
+				n += line.length();
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void cache() throws IOException, InterruptedException {
+		if ("warm".equals(cache)) {
+			ByteBuffer bb = ByteBuffer.allocateDirect(1 << 20);
+			try (FileChannel fc = FileChannel.open(new File(file).toPath())) {
+				while (fc.read(bb) >= 0) {
+					bb.clear();
+				}
+			}
+			return;
+		}
+		Process p = new ProcessBuilder("sh", "-c", System.getProperty("drop", DROP)).inheritIO().start();
+		if (p.waitFor() != 0) {
+			throw new IllegalStateException("Cannot drop the page cache, run as root or set -Ddrop");
+		}
+	}
+
+	@Benchmark
+	public long read() throws IOException {
+		long n = 0;
+		try (ChannelReader r = new ChannelReader(file, 0, Long.MAX_VALUE, -1, StandardCharsets.UTF_8, rb)) {
+			CharBuf line = new CharBuf(256);
+			while (r.readLine(line) != null) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+}
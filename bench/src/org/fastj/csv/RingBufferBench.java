@@ -0,0 +1,125 @@
+package org.fastj.csv;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 一个生产者线程与一个消费者线程之间的吞吐量, 对比原环形缓冲区(Throughput between one producer and one consumer thread, against
+ * the original ring buffer)
+ *
+ * <p>
+ * 看added和taken计数, 它们只计成功的操作; 满或空时的重试不计(Read the added and taken counters, they count successful
+ * operations only; retries on a full or empty queue are not counted). 两个线程需在不同核上结果才有意义(The result only means
+ * something with the two threads on different cores).
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RingBufferBench
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Group)
+public class RingBufferBench {
+
+	static final Object ITEM = new Object();
+
+	/** 与LineDistributor相同的64, 以及较大的1024(64 as in LineDistributor, and a larger 1024) */
+	@Param({ "64", "1024" })
+	int size;
+
+	RingBuffer<Object> padded;
+	OldRingBuffer<Object> old;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Added {
+		public long added;
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Taken {
+		public long taken;
+		final Object[] batch = new Object[LineTask.BATCH];
+	}
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		padded = new RingBuffer<>(size);
+		old = new OldRingBuffer<>(size);
+	}
+
+	@Benchmark
+	@Group("old")
+	@GroupThreads(1)
+	public void oldAdd(Added c) {
+		if (old.add(ITEM)) {
+			c.added++;
+		}
+	}
+
+	@Benchmark
+	@Group("old")
+	@GroupThreads(1)
+	public void oldPoll(Taken c) {
+		if (old.poll() != null) {
+			c.taken++;
+		}
+	}
+
+	@Benchmark
+	@Group("padded")
+	@GroupThreads(1)
+	public void paddedAdd(Added c) {
+		if (padded.add(ITEM)) {
+			c.added++;
+		}
+	}
+
+	@Benchmark
+	@Group("padded")
+	@GroupThreads(1)
+	public void paddedPoll(Taken c) {
+		if (padded.drainTo(c.batch, 1) == 1) {
+			c.taken++;
+		}
+	}
+
+	/**
+	 * 与LineTask相同, 每次至多取BATCH个(As LineTask does, up to BATCH at a time)
+	 */
+	@Benchmark
+	@Group("paddedBatch")
+	@GroupThreads(1)
+	public void paddedBatchAdd(Added c) {
+		if (padded.add(ITEM)) {
+			c.added++;
+		}
+	}
+
+	@Benchmark
+	@Group("paddedBatch")
+	@GroupThreads(1)
+	public void paddedBatchDrain(Taken c) {
+		c.taken += padded.drainTo(c.batch, c.batch.length);
+	}
+
+}
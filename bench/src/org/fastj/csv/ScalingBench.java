@@ -0,0 +1,118 @@
+package org.fastj.csv;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 读线程数 × 每读线程处理线程数到64个线程时的读取时间, 及线程分组的影响, 用于多路机器(Read time as readers × parse tasks per reader
+ * grow to 64 threads, and the effect of worker groups, for multi-socket machines)
+ *
+ * <p>
+ * groups=0为共享线程池, 2为每路一组(groups=0 is the shared pool, 2 is one group per socket). 只分组不绑定时两者应相近; 绑定可在
+ * numactl下运行, 或按线程名csv-g组号-序号用taskset绑定(Without pinning the two should be close; to pin, run under numactl or
+ * taskset the threads by their csv-g&lt;group&gt;-&lt;n&gt; names). 文件在页缓存中, 只测解析和线程间传递(The file is in the page
+ * cache, only parsing and hand-off are measured). aggregate不物化行, 内存与线程数无关; matrix需要足够的堆(aggregate
+ * materializes no rows, memory does not grow with threads; matrix needs heap to match).
+ *
+ * <pre>
+ * java -Ddir=/data -jar target/benchmarks.jar ScalingBench
+ * java -jar target/benchmarks.jar ScalingBench -p readTH=1,2,4,8 -p parseTH=1,2,4,8 -p groups=0,2,4 -p work=matrix
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+@State(Scope.Benchmark)
+public class ScalingBench {
+
+	static final String[] COLS = { "id", "v1", "v2", "k" };
+
+	@Param({ "1", "4", "8" })
+	int readTH;
+
+	@Param({ "4", "8" })
+	int parseTH;
+
+	@Param({ "0", "2" })
+	int groups;
+
+	@Param({ "aggregate" })
+	String work;
+
+	@Param({ "1024" })
+	int mb;
+
+	String file;
+	Aggregation agg;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		File f = new File(System.getProperty("dir", System.getProperty("java.io.tmpdir")), "fastcsv-scale-" + mb + "m.csv");
+		long size = (long) mb << 20;
+		if (!f.exists() || f.length() < size) {
+			write(f, size);
+		}
+		file = f.getPath();
+		agg = new Aggregation("k").count().sum("v1").max("v2");
+		CSV.workerGroups(groups);
+
+		// 放入页缓存(Bring it into the page cache)
+		ByteBuffer bb = ByteBuffer.allocateDirect(1 << 20);
+		try (FileChannel fc = FileChannel.open(f.toPath())) {
+			while (fc.read(bb) >= 0) {
+				bb.clear();
+			}
+		}
+	}
+
+	private static void write(File f, long size) throws IOException {
+		Random rnd = new Random(42);
+		long n = 0;
+		try (BufferedWriter w = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+			w.write("id,name,v1,v2,k,note\n");
+			for (long i = 0; n < size; i++) {
+				String line = i + ",name" + rnd.nextInt(100000) + ',' + rnd.nextDouble() + ',' + rnd.nextDouble() * 1000 + ',' + rnd.nextInt(1000)
+						+ ",\"a, b\"\n";
+				w.write(line);
+				n += line.length();
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		CSV.workerGroups(0);
+	}
+
+	@Benchmark
+	public Object read() throws IOException {
+		if ("matrix".equals(work)) {
+			return CSV.readMatrix(file, COLS, readTH, parseTH, 0);
+		}
+		return CSV.aggregate(file, agg, readTH, parseTH, 0);
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.fastj.csv;
+
+/**
+ * 分组聚合结果, 内存只与键数有关(Group-by result, its size depends only on the number of keys)
+ */
+public final class AggregateResult {
+
+	final String[] names;
+	final String[] keys;
+	final double[][] values;
+	final KeyMap index;
+
+	AggregateResult(String[] names, KeyMap index, double[][] values) {
+		this.names = names;
+		this.index = index;
+		this.keys = java.util.Arrays.copyOf(index.keys, index.size);
+		this.values = values;
+	}
+
+	/**
+	 * 聚合列名, 例如 "count", "sum(x)"(Aggregate names such as "count", "sum(x)")
+	 */
+	public String[] getNames() {
+		return names;
+	}
+
+	/**
+	 * 分组键, 顺序不固定, 不分组时为一个空串(Group keys in no particular order, a single "" without a key column)
+	 */
+	public String[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * @return 与getKeys()同序, 每个键一行聚合值(One row of aggregates per key, same order as getKeys())
+	 */
+	public double[][] getValues() {
+		return values;
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return 该键的聚合值, 不存在时为null(Aggregates of the key, null if absent)
+	 */
+	public double[] get(String key) {
+		int slot = index.find(key);
+		return slot < 0 ? null : values[slot];
+	}
+
+}
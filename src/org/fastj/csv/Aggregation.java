@@ -0,0 +1,86 @@
+package org.fastj.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按键列分组聚合的定义(Group-by definition: one key column and a list of aggregates)
+ *
+ * <pre>
+ * Aggregation agg = new Aggregation("city").count().sum("amount").max("amount");
+ * AggregateResult r = CSV.aggregate(file, agg, 4, 8, 0);
+ * </pre>
+ */
+public final class Aggregation {
+
+	public enum Op {
+		COUNT, SUM, MIN, MAX, MEAN
+	}
+
+	final String key;
+	final List<Op> ops = new ArrayList<>();
+	final List<String> cols = new ArrayList<>();
+
+	/**
+	 * @param key
+	 *            分组键列, null表示不分组(Key column, null for one global group)
+	 */
+	public Aggregation(String key) {
+		this.key = key;
+	}
+
+	public Aggregation count() {
+		return add(Op.COUNT, null);
+	}
+
+	public Aggregation sum(String col) {
+		return add(Op.SUM, col);
+	}
+
+	public Aggregation min(String col) {
+		return add(Op.MIN, col);
+	}
+
+	public Aggregation max(String col) {
+		return add(Op.MAX, col);
+	}
+
+	public Aggregation mean(String col) {
+		return add(Op.MEAN, col);
+	}
+
+	private Aggregation add(Op op, String col) {
+		if (op != Op.COUNT && col == null) {
+			throw new NullPointerException("Column must not null");
+		}
+		ops.add(op);
+		cols.add(col);
+		return this;
+	}
+
+	/**
+	 * 需要读取的列: 键列在前, 值列去重(Columns to read: the key first, then distinct value columns)
+	 */
+	String[] readColumns() {
+		List<String> rc = new ArrayList<>();
+		if (key != null) {
+			rc.add(key);
+		}
+		for (String c : cols) {
+			if (c != null && !rc.contains(c)) {
+				rc.add(c);
+			}
+		}
+		return rc.toArray(new String[rc.size()]);
+	}
+
+	String[] names() {
+		String[] names = new String[ops.size()];
+		for (int i = 0; i < names.length; i++) {
+			Op op = ops.get(i);
+			names[i] = op == Op.COUNT ? "count" : op.name().toLowerCase() + "(" + cols.get(i) + ")";
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,242 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.createIdxMap;
+import static org.fastj.csv.Util.createVidx;
+import static org.fastj.csv.Util.parseSimple;
+import static org.fastj.csv.Util.scanFields;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按订阅者需求读取的行批次发布者(Publisher of row batches that reads only as far as subscriber demand allows)
+ *
+ * <p>
+ * 只在有未满足的需求时读取, 预读不超过读取器自身的缓冲区, 慢速的订阅者会自然地限制磁盘读取(Reading happens only while there is
+ * outstanding demand, read-ahead never exceeds the reader's own buffer, so a slow subscriber throttles disk reads).
+ * 列头在线程池中第一次有需求时读取(The header is read on the pool on the first demand).
+ *
+ * <p>
+ * 数据源只能读一次, 只接受一个订阅者(The source can be read once, one subscriber only).
+ */
+final class BatchPublisher implements Flow.Publisher<RowBatch> {
+
+	private final Callable<ChannelReader> open;
+	private final String[] cols;
+	private final int headerLine;
+	private final CsvDialect dialect;
+	private final int batchRows;
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	/**
+	 * @param open
+	 *            在线程池中打开读取器(Opens the reader, on the pool)
+	 */
+	BatchPublisher(Callable<ChannelReader> open, String[] cols, int headerLine, CsvDialect dialect, int batchRows) {
+		if (batchRows <= 0) {
+			throw new IllegalArgumentException("batchRows must be positive: " + batchRows);
+		}
+		this.open = open;
+		this.cols = cols;
+		this.headerLine = headerLine;
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		this.batchRows = batchRows;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super RowBatch> subscriber) {
+		Objects.requireNonNull(subscriber);
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				public void request(long n) {
+				}
+
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("Already subscribed, the source can be read once"));
+			return;
+		}
+		subscriber.onSubscribe(new BatchSubscription(subscriber));
+	}
+
+	/**
+	 * 同一时刻只有一个线程在drain中读取和发送(Only one thread at a time reads and signals, inside drain)
+	 */
+	final class BatchSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super RowBatch> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable badRequest;
+		private volatile ChannelReader reader;
+
+		// 以下只在drain中访问(Below, touched only inside drain)
+		private boolean done;
+		private boolean eof;
+		private CharBuf buf;
+		private String[] header;
+		private int olen;
+		private int[] idxmap;
+		private int[] fstarts;
+		private int[] fends;
+		private int textHint = 1024;
+
+		BatchSubscription(Flow.Subscriber<? super RowBatch> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				badRequest = new IllegalArgumentException("Non-positive request: " + n);
+			} else {
+				long d, nd;
+				do {
+					d = demand.get();
+					nd = d + n < 0 ? Long.MAX_VALUE : d + n;
+				} while (!demand.compareAndSet(d, nd));
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			ChannelReader r = reader;
+			if (r != null) {
+				// 唤醒阻塞的读取(Wake a blocked read)
+				r.abort();
+			}
+			drain();
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() == 0) {
+				Util.executor.execute(() -> {
+					int missed = 1;
+					do {
+						emit();
+						missed = wip.addAndGet(-missed);
+					} while (missed != 0);
+				});
+			}
+		}
+
+		private void emit() {
+			if (done) {
+				return;
+			}
+			Throwable error = null;
+			try {
+				if (badRequest != null) {
+					throw badRequest;
+				}
+				if (reader == null && !cancelled) {
+					open();
+				}
+				while (!eof && !cancelled && demand.get() > 0) {
+					RowBatch b = next();
+					if (b.size() > 0) {
+						demand.decrementAndGet();
+						subscriber.onNext(b);
+					}
+				}
+			} catch (Throwable e) {
+				error = e;
+			}
+
+			if (cancelled || error != null || eof) {
+				done = true;
+				close();
+				if (cancelled) {
+					return;
+				}
+				if (error != null) {
+					subscriber.onError(error);
+				} else {
+					subscriber.onComplete();
+				}
+			}
+		}
+
+		private void open() throws Exception {
+			ChannelReader r = open.call();
+			r.dialect(dialect);
+			reader = r;
+			if (cancelled) {
+				return;
+			}
+			CharBuf hl = null;
+			int headline = headerLine;
+			while (headline-- >= 0) {
+				hl = r.readLine(hl);
+			}
+			String[] h = parseSimple(hl, dialect); // throw NPE if headline < 0
+			CharBuf.POOL.release(hl);
+
+			int[] vidx = createVidx(h, cols);
+			idxmap = createIdxMap(h.length, vidx);
+			olen = vidx.length;
+			header = cols != null ? cols : h;
+			fstarts = new int[olen];
+			fends = new int[olen];
+			buf = CharBuf.POOL.get();
+		}
+
+		/**
+		 * 读取至多batchRows行, 读到结尾时设置eof(Read up to batchRows lines, sets eof at the end)
+		 */
+		private RowBatch next() throws IOException {
+			char[] text = new char[textHint];
+			int[] starts = new int[batchRows * olen];
+			int[] ends = new int[batchRows * olen];
+			int tlen = 0;
+			int n = 0;
+			while (n < batchRows && !cancelled) {
+				CharBuf line = reader.readLine(buf);
+				if (line == null) {
+					eof = true;
+					break;
+				}
+				if (tlen + line.count > text.length) {
+					text = Arrays.copyOf(text, Math.max(text.length << 1, tlen + line.count));
+				}
+				System.arraycopy(line.value, 0, text, tlen, line.count);
+				scanFields(line, idxmap, olen, fstarts, fends, dialect);
+				int base = n * olen;
+				for (int j = 0; j < olen; j++) {
+					starts[base + j] = fstarts[j] < 0 ? -1 : fstarts[j] + tlen;
+					ends[base + j] = fends[j] < 0 ? -1 : fends[j] + tlen;
+				}
+				tlen += line.count;
+				n++;
+			}
+			textHint = Math.max(textHint, tlen);
+			return new RowBatch(header, dialect, text, starts, ends, n);
+		}
+
+		private void close() {
+			ChannelReader r = reader;
+			if (r != null) {
+				try {
+					r.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+			if (buf != null) {
+				CharBuf.POOL.release(buf);
+				buf = null;
+			}
+		}
+	}
+
+}
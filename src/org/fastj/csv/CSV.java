@@ -1,10 +1,23 @@
 package org.fastj.csv;
 
-import java.io.FileReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
-import java.util.LinkedList;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import static org.fastj.csv.Util.*;
 
@@ -24,7 +37,7 @@ public class CSV {
 	}
 
 	/**
-	 * 读取CSV文件
+	 * 单线程读取UTF-8编码的CSV文件(Single-thread read of a UTF-8 CSV file)
 	 * 
 	 * @param file
 	 *            仅支持本地文件(Local file only)
@@ -35,7 +48,68 @@ public class CSV {
 	 * @return String[][]
 	 */
 	public static String[][] readCsv(String file, String[] cols, boolean addHeader) throws IOException {
-		return readCsv(new FileReader(file), cols, addHeader);
+		try (SerialReader r = new SerialReader(file, StandardCharsets.UTF_8, 0, cols, CsvDialect.DEFAULT)) {
+			return r.readCsv(addHeader);
+		}
+	}
+
+	/**
+	 * 单线程读取: 在调用线程中读取字节并解析, 不启动线程, 每行不加锁(Single-thread read: bytes are read and parsed on the calling
+	 * thread, no threads started and no lock per line)
+	 * 
+	 * <p>
+	 * 用于已经并行的任务内部(For use inside already parallel tasks).
+	 * 
+	 * @param in
+	 *            字节流, 读取后关闭(Byte stream, closed after the read)
+	 * @param charset
+	 *            字符集, null为UTF-8(Charset, null for UTF-8)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return String[][]
+	 */
+	public static String[][] readCsvSerial(InputStream in, Charset charset, CsvDialect dialect, String[] cols, boolean addHeader, int headerLine)
+			throws IOException {
+		return readCsvSerial(Channels.newChannel(in), charset, dialect, cols, addHeader, headerLine);
+	}
+
+	/**
+	 * 单线程读取字节通道(Single-thread read of a byte channel)
+	 * 
+	 * @see #readCsvSerial(InputStream, Charset, CsvDialect, String[], boolean, int)
+	 */
+	public static String[][] readCsvSerial(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, boolean addHeader, int headerLine)
+			throws IOException {
+		try (SerialReader r = new SerialReader(ch, charset, headerLine, cols, dialect)) {
+			return r.readCsv(addHeader);
+		}
+	}
+
+	/**
+	 * 单线程读取矩阵(Single-thread read of a matrix)
+	 * 
+	 * @see #readCsvSerial(InputStream, Charset, CsvDialect, String[], boolean, int)
+	 */
+	public static double[][] readMatrixSerial(InputStream in, Charset charset, CsvDialect dialect, String[] cols, int headerLine) throws IOException {
+		return readMatrixSerial(Channels.newChannel(in), charset, dialect, cols, headerLine);
+	}
+
+	/**
+	 * 单线程读取字节通道为矩阵(Single-thread read of a byte channel as a matrix)
+	 * 
+	 * @see #readCsvSerial(InputStream, Charset, CsvDialect, String[], boolean, int)
+	 */
+	public static double[][] readMatrixSerial(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, int headerLine)
+			throws IOException {
+		try (SerialReader r = new SerialReader(ch, charset, headerLine, cols, dialect)) {
+			return r.readMatrix();
+		}
 	}
 
 	/**
@@ -54,7 +128,18 @@ public class CSV {
 	 * @return String[][]
 	 */
 	public static String[][] readCsv(String file, String[] cols, int readTH, int headerLine, boolean addHeader) throws IOException {
-		SimpleMTReader r = new SimpleMTReader(file, readTH, headerLine, cols);
+		return readCsv(file, cols, readTH, headerLine, addHeader, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * 多线程按方言读取CSV文件(Multi-thread read with a dialect)
+	 * 
+	 * @see #readCsv(String, String[], int, int, boolean)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static String[][] readCsv(String file, String[] cols, int readTH, int headerLine, boolean addHeader, CsvDialect dialect) throws IOException {
+		SimpleMTReader r = new SimpleMTReader(file, readTH, headerLine, cols, dialect);
 		return r.get(addHeader);
 	}
 
@@ -68,16 +153,31 @@ public class CSV {
 	 * @return String[][]
 	 */
 	public static String[][] readCsv(Reader reader, String[] cols, boolean addHeader) throws IOException {
-		List<String[]> list = new LinkedList<>();
+		return readCsv(reader, cols, addHeader, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * @param reader
+	 *            Reader
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @return String[][]
+	 */
+	public static String[][] readCsv(Reader reader, String[] cols, boolean addHeader, CsvDialect dialect) throws IOException {
+		RowChunks<String[]> list = new RowChunks<>(new String[RowChunks.CHUNK][]);
 
 		CharBuf buf = CharBuf.POOL.get();
 		CharBuf fieldBuf = CharBuf.POOL.get();
 		CharBuf line = buf;
 		String[][] data = null;
 
-		try (FastReader r = new FastReader(reader)) {
+		try (FastReader r = new FastReader(reader, dialect)) {
 			r.readLine(line);
-			String[] headers = parseSimple(line);
+			String[] headers = parseSimple(line, dialect);
 			if (addHeader) {
 				list.add(cols != null ? cols : headers);
 			}
@@ -85,10 +185,10 @@ public class CSV {
 			int[] idxmap = createIdxMap(headers.length, vidx);
 
 			while ((line = r.readLine(line)) != null) {
-				list.add(parseCSVLine(line, fieldBuf, vidx.length, idxmap));
+				list.add(parseCSVLine(line, fieldBuf, vidx.length, idxmap, dialect));
 			}
 
-			data = list.toArray(new String[list.size()][]);
+			data = list.toArray();
 		} finally {
 			CharBuf.POOL.release(buf);
 			CharBuf.POOL.release(fieldBuf);
@@ -109,14 +209,38 @@ public class CSV {
 	 * @param readTH
 	 *            读取线程数(Number of read-threads)
 	 * @param parseTHPerRead
-	 *            每个读线程的处理线程数, 必须是2的幂(Number of processing threads per read thread,
-	 *            Must be the power of 2)
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
 	 * @param headerLine
 	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
 	 * @return
 	 */
 	public static String[][] readCsv(String file, String[] cols, boolean addHeader, int readTH, int parseTHPerRead, int headerLine) throws IOException {
-		N2NStringReader nr = new N2NStringReader(file, readTH, parseTHPerRead, headerLine, cols);
+		return readCsv(file, cols, addHeader, readTH, parseTHPerRead, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * 按方言加速读取表格(Accelerating read table with a dialect)
+	 * 
+	 * @see #readCsv(String, String[], boolean, int, int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static String[][] readCsv(String file, String[] cols, boolean addHeader, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect)
+			throws IOException {
+		N2NStringReader nr = new N2NStringReader(file, readTH, parseTHPerRead, headerLine, cols, dialect);
+		return nr.get(addHeader);
+	}
+
+	/**
+	 * 指定本次读取的读缓冲区, 不影响其它读取(With a read buffer for this read only, other reads are not affected)
+	 * 
+	 * @see #readCsv(String, String[], boolean, int, int, int, CsvDialect)
+	 * @param buffer
+	 *            读缓冲区, null为默认值(Read buffer, null for the default)
+	 */
+	public static String[][] readCsv(String file, String[] cols, boolean addHeader, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect,
+			ReadBuffer buffer) throws IOException {
+		N2NStringReader nr = new N2NStringReader(openBlocks(file, readTH, buffer), parseTHPerRead, headerLine, cols, dialect);
 		return nr.get(addHeader);
 	}
 
@@ -130,14 +254,37 @@ public class CSV {
 	 * @param readTH
 	 *            读取线程数(Number of read-threads)
 	 * @param parseTHPerRead
-	 *            每个读线程的处理线程数, 必须是2的幂(Number of processing threads per read thread,
-	 *            Must be the power of 2)
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
 	 * @param headerLine
 	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
 	 * @return double[][]
 	 */
 	public static double[][] readMatrix(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine) throws IOException {
-		N2NMatrixReader nr = new N2NMatrixReader(file, readTH, parseTHPerRead, headerLine, cols);
+		return readMatrix(file, cols, readTH, parseTHPerRead, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * 按方言加速读取矩阵(Accelerating read matrix with a dialect)
+	 * 
+	 * @see #readMatrix(String, String[], int, int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static double[][] readMatrix(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect) throws IOException {
+		N2NMatrixReader nr = new N2NMatrixReader(file, readTH, parseTHPerRead, headerLine, cols, dialect);
+		return nr.get();
+	}
+
+	/**
+	 * 指定本次读取的读缓冲区, 不影响其它读取(With a read buffer for this read only, other reads are not affected)
+	 * 
+	 * @see #readMatrix(String, String[], int, int, int, CsvDialect)
+	 * @param buffer
+	 *            读缓冲区, null为默认值(Read buffer, null for the default)
+	 */
+	public static double[][] readMatrix(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect, ReadBuffer buffer)
+			throws IOException {
+		N2NMatrixReader nr = new N2NMatrixReader(openBlocks(file, readTH, buffer), parseTHPerRead, headerLine, cols, dialect);
 		return nr.get();
 	}
 
@@ -151,23 +298,38 @@ public class CSV {
 	 * @return double[][]
 	 */
 	public static double[][] readMatrix(Reader reader, String[] cols) throws IOException {
+		return readMatrix(reader, cols, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * 按方言读取矩阵 Read matrix with a dialect
+	 * 
+	 * @param reader
+	 *            Reader
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @return double[][]
+	 */
+	public static double[][] readMatrix(Reader reader, String[] cols, CsvDialect dialect) throws IOException {
 
-		List<double[]> list = new LinkedList<>();
+		RowChunks<double[]> list = new RowChunks<>(new double[RowChunks.CHUNK][]);
 
 		double[][] rlt = null;
 
-		try (FastReader r = new FastReader(reader)) {
+		try (FastReader r = new FastReader(reader, dialect)) {
 			CharBuf line = null;
 			CharBuf buf = r.readLine(null);
-			String[] headers = parseSimple(buf);
+			String[] headers = parseSimple(buf, dialect);
 			int[] vidx = createVidx(headers, cols);
 			int[] idxmap = createIdxMap(headers.length, vidx);
 			while ((line = r.readLine(buf)) != null) {
-				double[] row = parseCSVMatrix(line, vidx.length, idxmap);
+				double[] row = parseCSVMatrix(line, vidx.length, idxmap, dialect);
 				list.add(row);
 			}
 
-			rlt = list.toArray(new double[list.size()][]);
+			rlt = list.toArray();
 		} finally {
 			// nothing
 		}
@@ -176,7 +338,7 @@ public class CSV {
 	}
 
 	/**
-	 * 按列读取矩阵 Read matrix by column
+	 * 单线程按列读取UTF-8编码的矩阵(Single-thread read of a UTF-8 matrix by column)
 	 * 
 	 * @param file
 	 *            仅支持本地文件(Local file only)
@@ -185,7 +347,9 @@ public class CSV {
 	 * @return double[][]
 	 */
 	public static double[][] readMatrix(String file, String[] cols) throws IOException {
-		return readMatrix(new FileReader(file), cols);
+		try (SerialReader r = new SerialReader(file, StandardCharsets.UTF_8, 0, cols, CsvDialect.DEFAULT)) {
+			return r.readMatrix();
+		}
 	}
 
 	/**
@@ -202,8 +366,968 @@ public class CSV {
 	 * @return double[][]
 	 */
 	public static double[][] readMatrix(String file, String[] cols, int readTH, int headerLine) throws IOException {
-		SimpleMTReader r = new SimpleMTReader(file, readTH, headerLine, cols);
+		return readMatrix(file, cols, readTH, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * 多线程按方言读取矩阵(Multi-thread read matrix with a dialect)
+	 * 
+	 * @see #readMatrix(String, String[], int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static double[][] readMatrix(String file, String[] cols, int readTH, int headerLine, CsvDialect dialect) throws IOException {
+		SimpleMTReader r = new SimpleMTReader(file, readTH, headerLine, cols, dialect);
 		return r.get();
 	}
 
+	/**
+	 * 单读线程、多处理线程读取任意字节流(Single reader, parallel parse threads, for any byte channel)
+	 * 
+	 * @param ch
+	 *            字节流：socket、对象存储流等(Byte channel: socket, object-store stream...)
+	 * @param charset
+	 *            字符集, null为UTF-8(Charset, null for UTF-8)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param parseTH
+	 *            处理线程数(Number of processing threads)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return String[][]
+	 */
+	public static String[][] readCsv(ReadableByteChannel ch, Charset charset, String[] cols, boolean addHeader, int parseTH, int headerLine) throws IOException {
+		return readCsv(ch, charset, CsvDialect.DEFAULT, cols, addHeader, parseTH, headerLine);
+	}
+
+	/**
+	 * @see #readCsv(ReadableByteChannel, Charset, String[], boolean, int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static String[][] readCsv(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, boolean addHeader, int parseTH, int headerLine)
+			throws IOException {
+		ChannelReader[] readers = { new ChannelReader(ch, -1, charset) };
+		N2NStringReader nr = new N2NStringReader(readers, parseTH, headerLine, cols, dialect);
+		return nr.get(addHeader);
+	}
+
+	/**
+	 * @see #readCsv(ReadableByteChannel, Charset, String[], boolean, int, int)
+	 */
+	public static String[][] readCsv(InputStream in, String[] cols, boolean addHeader, int parseTH, int headerLine) throws IOException {
+		return readCsv(Channels.newChannel(in), null, cols, addHeader, parseTH, headerLine);
+	}
+
+	/**
+	 * @see #readCsv(ReadableByteChannel, Charset, String[], boolean, int, int)
+	 */
+	public static String[][] readCsv(byte[] data, String[] cols, boolean addHeader, int parseTH, int headerLine) throws IOException {
+		return readCsv(new ByteArrayInputStream(data), cols, addHeader, parseTH, headerLine);
+	}
+
+	/**
+	 * 单读线程、多处理线程读取任意字节流矩阵(Single reader, parallel parse threads, for any byte channel)
+	 * 
+	 * @param ch
+	 *            字节流：socket、对象存储流等(Byte channel: socket, object-store stream...)
+	 * @param charset
+	 *            字符集, null为UTF-8(Charset, null for UTF-8)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param parseTH
+	 *            处理线程数(Number of processing threads)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return double[][]
+	 */
+	public static double[][] readMatrix(ReadableByteChannel ch, Charset charset, String[] cols, int parseTH, int headerLine) throws IOException {
+		return readMatrix(ch, charset, CsvDialect.DEFAULT, cols, parseTH, headerLine);
+	}
+
+	/**
+	 * @see #readMatrix(ReadableByteChannel, Charset, String[], int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static double[][] readMatrix(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, int parseTH, int headerLine) throws IOException {
+		ChannelReader[] readers = { new ChannelReader(ch, -1, charset) };
+		N2NMatrixReader nr = new N2NMatrixReader(readers, parseTH, headerLine, cols, dialect);
+		return nr.get();
+	}
+
+	/**
+	 * @see #readMatrix(ReadableByteChannel, Charset, String[], int, int)
+	 */
+	public static double[][] readMatrix(InputStream in, String[] cols, int parseTH, int headerLine) throws IOException {
+		return readMatrix(Channels.newChannel(in), null, cols, parseTH, headerLine);
+	}
+
+	/**
+	 * @see #readMatrix(ReadableByteChannel, Charset, String[], int, int)
+	 */
+	public static double[][] readMatrix(byte[] data, String[] cols, int parseTH, int headerLine) throws IOException {
+		return readMatrix(new ByteArrayInputStream(data), cols, parseTH, headerLine);
+	}
+
+	/**
+	 * 采样推断方言、列头行、列类型(Sniff dialect, header line and column types from the first bytes)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @return SniffResult
+	 */
+	public static SniffResult sniff(String file) throws IOException {
+		return CsvSniffer.sniff(file);
+	}
+
+	/**
+	 * 按采样结果读取全部数值列(Read every numeric, non-empty column found by the sniffer)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param sniff
+	 *            采样结果(Sniff result of the same file)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @return double[][], 列顺序同sniff.numericColumns()(Columns ordered as sniff.numericColumns())
+	 */
+	public static double[][] readMatrix(String file, SniffResult sniff, int readTH, int parseTHPerRead) throws IOException {
+		if (!sniff.hasHeader()) {
+			return readMatrix(file, schema(sniff), sniff.numericColumns(), readTH, parseTHPerRead);
+		}
+		return readMatrix(file, sniff.numericColumns(), readTH, parseTHPerRead, sniff.getHeaderLine(), sniff.getDialect());
+	}
+
+	/**
+	 * 按采样结果读取表格(Read a table with the sniffed dialect and header line)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param sniff
+	 *            采样结果(Sniff result of the same file)
+	 * @param cols
+	 *            需要读取的列头, null为全部(Columns to read, null for all)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @return String[][]
+	 */
+	public static String[][] readCsv(String file, SniffResult sniff, String[] cols, boolean addHeader, int readTH, int parseTHPerRead) throws IOException {
+		if (!sniff.hasHeader()) {
+			return readCsv(file, schema(sniff), cols, addHeader, readTH, parseTHPerRead);
+		}
+		return readCsv(file, cols, addHeader, readTH, parseTHPerRead, sniff.getHeaderLine(), sniff.getDialect());
+	}
+
+	/**
+	 * 无列头的文件: 用生成的列名, 只跳过第一行数据之前的行(A file without a header: the generated names, skipping only the lines
+	 * before the first data row)
+	 */
+	private static CsvSchema schema(SniffResult sniff) {
+		return CsvSchema.of(sniff.getHeader(), sniff.getHeaderLine() - 1, sniff.getDialect());
+	}
+
+	/**
+	 * 读取并解析文件列头, 得到可重复使用的schema(Read and parse the header of a file into a reusable schema)
+	 * 
+	 * <pre>
+	 * CsvSchema schema = CSV.schema(file, 0, null);
+	 * String[][] a = CSV.readCsv(file, schema, new String[] { "id", "name" }, false, 4, 2);
+	 * double[][] b = CSV.readMatrix(other, schema, schema.exclude("id", "name"), 4, 2);
+	 * </pre>
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static CsvSchema schema(String file, int headerLine, CsvDialect dialect) throws IOException {
+		return CsvSchema.read(file, headerLine, dialect);
+	}
+
+	/**
+	 * 按schema读取表格, 不再解析列头; 列头行与schema不一致时抛出IOException(Read a table with a prepared schema, the header is
+	 * not parsed again; an IOException if the header line differs from the schema)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param schema
+	 *            同结构文件的schema(Schema of a same-shaped file)
+	 * @param cols
+	 *            需要读取的列头, null为全部(Columns to read, null for all)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @return String[][]
+	 */
+	public static String[][] readCsv(String file, CsvSchema schema, String[] cols, boolean addHeader, int readTH, int parseTHPerRead) throws IOException {
+		return new N2NStringReader(file, readTH, parseTHPerRead, schema, cols).get(addHeader);
+	}
+
+	/**
+	 * 按schema读取矩阵(Read a matrix with a prepared schema)
+	 * 
+	 * @see #readCsv(String, CsvSchema, String[], boolean, int, int)
+	 */
+	public static double[][] readMatrix(String file, CsvSchema schema, String[] cols, int readTH, int parseTHPerRead) throws IOException {
+		return new N2NMatrixReader(file, readTH, parseTHPerRead, schema, cols).get();
+	}
+
+	/**
+	 * 按schema读取为紧凑字符串表(Read a compact string table with a prepared schema)
+	 * 
+	 * @see #readCsv(String, CsvSchema, String[], boolean, int, int)
+	 * @see #readTable(String, String[], int, int, int, CsvDialect)
+	 */
+	public static CsvTable readTable(String file, CsvSchema schema, String[] cols, int readTH, int parseTHPerRead) throws IOException {
+		return new N2NTableReader(file, readTH, parseTHPerRead, schema, cols).get();
+	}
+
+	/**
+	 * 增量读取持续追加的文件(Follow a growing file, each poll returns only the new complete rows)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return CsvTailReader
+	 */
+	public static CsvTailReader tail(String file, String[] cols, int headerLine) {
+		return new CsvTailReader(file, cols, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * 列出目录下匹配glob的文件, 按文件名排序(List the files of a directory matching a glob, sorted by name)
+	 * 
+	 * @param dir
+	 *            目录(Directory)
+	 * @param glob
+	 *            例如 "part-*.csv"(e.g. "part-*.csv")
+	 * @return List
+	 */
+	public static List<String> glob(String dir, String glob) throws IOException {
+		return DatasetReader.glob(dir, glob);
+	}
+
+	/**
+	 * 多文件读取矩阵, 所有文件共用线程预算, 结果按文件顺序拼接(Read many files of one schema under one thread budget,
+	 * concatenated in file order)
+	 * 
+	 * @param files
+	 *            列头相同的本地文件(Local files sharing one header)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param threads
+	 *            总线程数(Total number of threads for all files)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return double[][]
+	 */
+	public static double[][] readMatrix(List<String> files, String[] cols, int threads, int headerLine) throws IOException {
+		return readMatrix(files, cols, threads, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * @see #readMatrix(List, String[], int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static double[][] readMatrix(List<String> files, String[] cols, int threads, int headerLine, CsvDialect dialect) throws IOException {
+		return new DatasetReader(files, cols, threads, headerLine, dialect).readMatrix();
+	}
+
+	/**
+	 * 多文件读取矩阵, 每个文件一个结果(Read many files of one schema under one thread budget, one result per file)
+	 * 
+	 * @see #readMatrix(List, String[], int, int, CsvDialect)
+	 * @return double[文件][行][列](double[file][row][col])
+	 */
+	public static double[][][] readMatrixPerFile(List<String> files, String[] cols, int threads, int headerLine, CsvDialect dialect) throws IOException {
+		return new DatasetReader(files, cols, threads, headerLine, dialect).readMatrixPerFile();
+	}
+
+	/**
+	 * 多文件读取表格, 所有文件共用线程预算, 结果按文件顺序拼接(Read many files of one schema under one thread budget,
+	 * concatenated in file order)
+	 * 
+	 * @param files
+	 *            列头相同的本地文件(Local files sharing one header)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param threads
+	 *            总线程数(Total number of threads for all files)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return String[][]
+	 */
+	public static String[][] readCsv(List<String> files, String[] cols, boolean addHeader, int threads, int headerLine) throws IOException {
+		return readCsv(files, cols, addHeader, threads, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * @see #readCsv(List, String[], boolean, int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static String[][] readCsv(List<String> files, String[] cols, boolean addHeader, int threads, int headerLine, CsvDialect dialect) throws IOException {
+		return new DatasetReader(files, cols, threads, headerLine, dialect).readCsv(addHeader);
+	}
+
+	/**
+	 * 多文件读取表格, 每个文件一个结果(Read many files of one schema under one thread budget, one result per file)
+	 * 
+	 * @see #readCsv(List, String[], boolean, int, int, CsvDialect)
+	 * @return String[文件][行][列](String[file][row][col])
+	 */
+	public static String[][][] readCsvPerFile(List<String> files, String[] cols, int threads, int headerLine, CsvDialect dialect) throws IOException {
+		return new DatasetReader(files, cols, threads, headerLine, dialect).readCsvPerFile();
+	}
+
+	/**
+	 * 读取时分组聚合, 不物化行, 内存只与键数有关(Group-by while loading, rows are never materialized and memory depends only on
+	 * the number of keys)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param agg
+	 *            键列和聚合(Key column and aggregates)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程对应的聚合线程数(Number of aggregate-threads per read-thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @return AggregateResult
+	 */
+	public static AggregateResult aggregate(String file, Aggregation agg, int readTH, int parseTHPerRead, int headerLine) throws IOException {
+		return aggregate(file, agg, readTH, parseTHPerRead, headerLine, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * @see #aggregate(String, Aggregation, int, int, int)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static AggregateResult aggregate(String file, Aggregation agg, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect)
+			throws IOException {
+		return new N2NAggregateReader(file, readTH, parseTHPerRead, headerLine, agg, dialect).get();
+	}
+
+	/**
+	 * 单遍统计每列: 最小值、最大值、缺失数、空值数、均值、长度、近似不同值个数(One pass of column statistics: min, max, null and
+	 * empty counts, mean, lengths and approximate distinct count)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @return 每列一个统计(One entry per column)
+	 */
+	public static ColumnStats[] profile(String file) throws IOException {
+		return profile(file, null, 1, 2, 0, CsvDialect.DEFAULT);
+	}
+
+	/**
+	 * @see #profile(String)
+	 * @param cols
+	 *            需要统计的列头, null表示全部(Columns to profile, null for all)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static ColumnStats[] profile(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect) throws IOException {
+		return new N2NProfileReader(file, readTH, parseTHPerRead, headerLine, cols, dialect).get();
+	}
+
+	/**
+	 * 在内存预算内流式读取表格, 超出预算的已解析行溢出到临时文件(Stream a table within a memory budget, parsed rows beyond the
+	 * budget are spilled to a temporary file)
+	 * 
+	 * <pre>
+	 * try (RowCursor&lt;String[]&gt; rows = CSV.openCsv(file, null, 4, 2, 0, null, 256L &lt;&lt; 20)) {
+	 * 	while (rows.hasNext()) {
+	 * 		String[] row = rows.next();
+	 * 	}
+	 * }
+	 * </pre>
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @param memoryBudget
+	 *            已缓存和已解析行的估计字节上限(Upper bound, in estimated bytes, of buffered and parsed rows)
+	 * @return RowCursor, 用完需关闭(Close it when done)
+	 */
+	public static RowCursor<String[]> openCsv(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect,
+			long memoryBudget) throws IOException {
+		return new N2NCursorReader<>(openBlocks(file, readTH), parseTHPerRead, headerLine, cols, dialect, RowCodec.STRING, memoryBudget, true).open();
+	}
+
+	/**
+	 * 在内存预算内流式读取矩阵(Stream a matrix within a memory budget)
+	 * 
+	 * @see #openCsv(String, String[], int, int, int, CsvDialect, long)
+	 */
+	public static RowCursor<double[]> openMatrix(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect,
+			long memoryBudget) throws IOException {
+		return new N2NCursorReader<>(openBlocks(file, readTH), parseTHPerRead, headerLine, cols, dialect, RowCodec.MATRIX, memoryBudget, true).open();
+	}
+
+	/**
+	 * 在内存预算内流式读取字节流表格, 预算用尽时读线程阻塞(Stream a table from a byte channel within a memory budget, the reader
+	 * blocks while the budget is used up)
+	 * 
+	 * @param ch
+	 *            字节流：socket、对象存储流等(Byte channel: socket, object-store stream...)
+	 * @param charset
+	 *            字符集, null为UTF-8(Charset, null for UTF-8)
+	 * @param parseTH
+	 *            处理线程数(Number of processing threads)
+	 * @see #openCsv(String, String[], int, int, int, CsvDialect, long)
+	 */
+	public static RowCursor<String[]> openCsv(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, int parseTH, int headerLine,
+			long memoryBudget) throws IOException {
+		ChannelReader[] readers = { new ChannelReader(ch, -1, charset) };
+		return new N2NCursorReader<>(readers, parseTH, headerLine, cols, dialect, RowCodec.STRING, memoryBudget, false).open();
+	}
+
+	/**
+	 * 在内存预算内流式读取字节流矩阵, 预算用尽时读线程阻塞(Stream a matrix from a byte channel within a memory budget, the reader
+	 * blocks while the budget is used up)
+	 * 
+	 * @see #openCsv(ReadableByteChannel, Charset, CsvDialect, String[], int, int, long)
+	 */
+	public static RowCursor<double[]> openMatrix(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, int parseTH, int headerLine,
+			long memoryBudget) throws IOException {
+		ChannelReader[] readers = { new ChannelReader(ch, -1, charset) };
+		return new N2NCursorReader<>(readers, parseTH, headerLine, cols, dialect, RowCodec.MATRIX, memoryBudget, false).open();
+	}
+
+	/**
+	 * 读取为字段视图: 字段内容复制到共享字符块, 每行只创建一个对象, 需要时才创建String(Read into field views: field contents are
+	 * copied into shared char chunks, one object per row, Strings only when asked for)
+	 * 
+	 * <p>
+	 * 只比较或计算哈希的字段可用FieldView直接处理, 字符串较多的文件分配大幅减少(Fields that are only compared or hashed can stay
+	 * FieldViews, which cuts allocation sharply on string-heavy files).
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @return CsvRow[], 按文件顺序(In file order)
+	 */
+	public static CsvRow[] readRows(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect) throws IOException {
+		return new N2NRowReader(file, readTH, parseTHPerRead, headerLine, cols, dialect).get();
+	}
+
+	/**
+	 * 按列读取并转换, 转换在处理线程中与解析一起执行, 数值列直接写入double[]或long[](Read and convert by column; conversion runs
+	 * on the parse tasks together with parsing, numeric columns go straight into double[] or long[])
+	 * 
+	 * <p>
+	 * 不创建中间的String[]行, 未加引号的字段不复制(No intermediate String[] rows, unquoted fields are not copied).
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param mapping
+	 *            需要读取的列及其转换(Columns to read and their conversions)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @return 按文件顺序(In file order)
+	 * @throws NumberFormatException
+	 *             默认的数值转换遇到非数值(A default numeric conversion met a non-number)
+	 */
+	public static TypedColumns readColumns(String file, ColumnMapping mapping, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect)
+			throws IOException {
+		checkMapping(mapping);
+		return new N2NColumnReader<Void>(file, readTH, parseTHPerRead, headerLine, mapping, null, dialect).columns();
+	}
+
+	/**
+	 * 按列转换后由factory创建记录, 转换与创建都在处理线程中执行(Convert by column and create records with factory, both on the
+	 * parse tasks)
+	 * 
+	 * @param factory
+	 *            由转换后的一行创建记录(Creates a record from one converted row)
+	 * @return 按文件顺序(In file order)
+	 * @see #readColumns(String, ColumnMapping, int, int, int, CsvDialect)
+	 */
+	public static <R> List<R> readRecords(String file, ColumnMapping mapping, RecordFactory<R> factory, int readTH, int parseTHPerRead, int headerLine,
+			CsvDialect dialect) throws IOException {
+		checkMapping(mapping);
+		if (factory == null) {
+			throw new NullPointerException("Record factory must not null");
+		}
+		return new N2NColumnReader<>(file, readTH, parseTHPerRead, headerLine, mapping, factory, dialect).records();
+	}
+
+	/**
+	 * 按列名读取为record或POJO, 列位置与访问器只绑定一次, 处理线程直接转换为字段类型, 不创建中间的String[](Read into records or
+	 * POJOs by column name; column positions and accessors are bound once, the parse tasks convert straight to the field
+	 * types with no intermediate String[])
+	 * 
+	 * <p>
+	 * record按组件名绑定, POJO需要无参构造器并按字段名绑定; 支持基本数值类型及其包装类、boolean、String、BigDecimal、枚举(Records
+	 * bind by component name, POJOs need a no-arg constructor and bind by field name; primitive numbers and their wrappers,
+	 * boolean, String, BigDecimal and enums are supported). 不在列头中的字段保持默认值(Fields missing from the header keep their
+	 * defaults).
+	 * 
+	 * @param type
+	 *            record或POJO类(Record or POJO class)
+	 * @return 按文件顺序(In file order)
+	 * @throws IllegalArgumentException
+	 *             没有与列头匹配的字段, 或字段类型不支持(No field matches the header, or a field type is unsupported)
+	 * @see #readColumns(String, ColumnMapping, int, int, int, CsvDialect)
+	 */
+	public static <T> List<T> readObjects(String file, Class<T> type, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect)
+			throws IOException {
+		RecordMapper<T> mapper = RecordMapper.bind(type, CsvSchema.read(file, headerLine, dialect).getHeader());
+		return readRecords(file, mapper.mapping, mapper, readTH, parseTHPerRead, headerLine, dialect);
+	}
+
+	private static void checkMapping(ColumnMapping mapping) {
+		if (mapping == null || mapping.size() == 0) {
+			throw new IllegalArgumentException("Empty column mapping");
+		}
+	}
+
+	/**
+	 * 设置未指定读缓冲区的读取所用的默认值, 对进程内之后打开的所有读取生效(Set the default read buffer for reads that do not pass
+	 * one, applies to every read in the process opened afterwards)
+	 * 
+	 * <p>
+	 * 只影响一次读取时, 使用带ReadBuffer参数的读取方法(To tune a single read, use the read methods taking a ReadBuffer).
+	 * 
+	 * @see ReadBuffer
+	 * @param bytes
+	 *            缓冲区大小, 按4KB页取整, 0为默认32KB(Buffer size, rounded up to 4KB pages, 0 for the default 32KB)
+	 * @param readAhead
+	 *            是否预读(Read ahead?)
+	 */
+	public static void readBuffer(int bytes, boolean readAhead) {
+		ChannelReader.defaults = new ReadBuffer(bytes, readAhead);
+	}
+
+	/**
+	 * 设置默认读缓冲区, 可绕过页缓存(Set the default read buffer, optionally around the page cache)
+	 * 
+	 * <p>
+	 * 默认值作用于进程内所有未指定读缓冲区的读取, 小文件也会每次直接访问磁盘; 只读一次的大文件扫描应改为按次传入new ReadBuffer(bytes,
+	 * readAhead, true)(The default applies to every read in the process that passes no buffer, small ones then go to the disk on
+	 * every call; pass new ReadBuffer(bytes, readAhead, true) to the one-shot scan instead).
+	 * 
+	 * @see ReadBuffer
+	 * @see #readBuffer(int, boolean)
+	 * @param bypassCache
+	 *            是否绕过页缓存(Bypass the page cache?)
+	 * @return 是否支持绕过页缓存(Is bypassing the cache supported by this JDK?)
+	 */
+	public static boolean readBuffer(int bytes, boolean readAhead, boolean bypassCache) {
+		ChannelReader.defaults = new ReadBuffer(bytes, readAhead, bypassCache);
+		return ReadBuffer.bypassSupported();
+	}
+
+	/**
+	 * 按读线程分组放置线程: 第i个读线程及其处理线程都运行在第(i % groups)组的线程上, 行只在组内传递(Place threads by reader
+	 * group: reader i and its parse tasks all run on threads of group i % groups, so lines stay inside a group)
+	 * 
+	 * <p>
+	 * 线程名为csv-g组号-序号, 可按线程号用taskset等工具绑定到CPU(Threads are named csv-g&lt;group&gt;-&lt;n&gt;, so tools
+	 * like taskset can pin them by thread id). 对之后开始的多线程读取生效(Applies to multi-threaded reads started afterwards).
+	 * 
+	 * <p>
+	 * 分组本身不会加快读取, 只有在多路机器上把各组线程绑定到各自的节点时才可能减少跨节点访问(Grouping alone does not speed reads up;
+	 * it can only cut cross-node traffic once each group's threads are pinned to their node on a multi-socket machine).
+	 * 
+	 * @param groups
+	 *            组数, 如每个NUMA节点一组; 0为恢复默认的共享线程池(Number of groups, one per NUMA node say; 0 restores the
+	 *            shared default pool)
+	 */
+	public static void workerGroups(int groups) {
+		workerGroups(groups, Util::groupThreads);
+	}
+
+	/**
+	 * 按读线程分组放置线程, 每组的线程由调用方的ThreadFactory创建, 可在其中绑定CPU或NUMA节点(Place threads by reader group, each
+	 * group's threads created by the caller's ThreadFactory, which can pin them to CPUs or a NUMA node)
+	 * 
+	 * @see #workerGroups(int)
+	 * @param factory
+	 *            按组号返回该组的ThreadFactory, 建议创建守护线程(Returns the ThreadFactory of a group by its number, daemon
+	 *            threads recommended)
+	 */
+	public static void workerGroups(int groups, IntFunction<ThreadFactory> factory) {
+		if (groups < 0) {
+			throw new IllegalArgumentException("Negative group count: " + groups);
+		}
+		if (groups > 0 && factory == null) {
+			throw new NullPointerException("Thread factory must not null");
+		}
+		Util.groups(groups, factory);
+	}
+
+	/**
+	 * 读取为紧凑字符串表: 每块行的字段内容放在一个char[]中, 加载只需少量大块分配, 不为每个字段创建String(Read into a compact string
+	 * table: the field contents of a block of rows share one char[], loading costs a handful of large allocations and no String
+	 * per field)
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @return CsvTable, 按文件顺序(In file order)
+	 */
+	public static CsvTable readTable(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect) throws IOException {
+		return new N2NTableReader(file, readTH, parseTHPerRead, headerLine, cols, dialect).get();
+	}
+
+	/**
+	 * 只读取一段行, 相当于LIMIT/OFFSET: 跳过前offset行, 读够limit行后立即停止, 不扫描文件的剩余部分(Read one range of rows, like
+	 * LIMIT/OFFSET: skip the first offset rows and stop right after limit rows, the rest of the file is not scanned)
+	 * 
+	 * <p>
+	 * 行号是全局的, 因此只用一个读线程; 跳过的行仍需读取, 但不解析(Row numbers are global, so a single reader is used; skipped rows
+	 * are still read, but not parsed).
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param offset
+	 *            跳过的数据行数, 不含列头(Data rows to skip, header excluded)
+	 * @param limit
+	 *            最多读取的行数(Most rows to read)
+	 * @param parseTH
+	 *            处理线程数(Number of processing threads)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static String[][] readCsvRange(String file, String[] cols, boolean addHeader, long offset, int limit, int parseTH, int headerLine,
+			CsvDialect dialect) throws IOException {
+		N2NStringReader nr = new N2NStringReader(openBlocks(file, 1), parseTH, headerLine, cols, dialect);
+		nr.range(offset, limit);
+		return nr.get(addHeader);
+	}
+
+	/**
+	 * 只读取一段行为矩阵(Read one range of rows as a matrix)
+	 * 
+	 * @see #readCsvRange(String, String[], boolean, long, int, int, int, CsvDialect)
+	 */
+	public static double[][] readMatrixRange(String file, String[] cols, long offset, int limit, int parseTH, int headerLine, CsvDialect dialect)
+			throws IOException {
+		N2NMatrixReader nr = new N2NMatrixReader(openBlocks(file, 1), parseTH, headerLine, cols, dialect);
+		nr.range(offset, limit);
+		return nr.get();
+	}
+
+	/**
+	 * 不扫描全文件的随机抽样, 用于预览和统计估计(Random row sample without a full scan, for previews and estimates)
+	 * 
+	 * <p>
+	 * 随机定位到许多4KB窗口, 每个窗口从下一行边界开始, 只随机取至多2行, 再对取到的行做蓄水池抽样, 样本分散在整个文件中(Seeks to many random 4KB
+	 * windows, reads each from its next line boundary, takes at most two random lines from it and reservoir-samples the lines taken, so
+	 * the sample is spread over the whole file). 结果为近似均匀抽样, 行较长处的行概率略高; 小文件会全部读取, 结果为精确的均匀抽样(The sample is
+	 * approximately uniform, lines among long lines are slightly favoured; small files are read whole and the sample is exactly
+	 * uniform). 文件行数不少于k时总是返回k行(Always returns k rows when the file has at least k). 窗口边界落在多行引号字段中时可能错位, 与多线程读取
+	 * 相同(A window boundary inside a multi-line quoted field can misalign, as with multi-threaded reads).
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param k
+	 *            样本行数(Sample size)
+	 * @param seed
+	 *            随机种子, 相同种子结果相同(Random seed, the same seed gives the same sample)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @return 至多k行, 按文件顺序(At most k rows, in file order)
+	 */
+	public static String[][] sample(String file, String[] cols, int k, long seed, int headerLine, CsvDialect dialect) throws IOException {
+		return RowSampler.sample(file, cols, k, seed, headerLine, dialect, RowCodec.STRING);
+	}
+
+	/**
+	 * 随机抽样为矩阵(Random row sample as a matrix)
+	 * 
+	 * @see #sample(String, String[], int, long, int, CsvDialect)
+	 */
+	public static double[][] sampleMatrix(String file, String[] cols, int k, long seed, int headerLine, CsvDialect dialect) throws IOException {
+		return RowSampler.sample(file, cols, k, seed, headerLine, dialect, RowCodec.MATRIX);
+	}
+
+	/**
+	 * 按需求读取的行批次发布者, 用于流式处理(Publisher of row batches read on demand, for streaming pipelines)
+	 * 
+	 * <p>
+	 * 只在订阅者请求时读取, 慢速的下游会限制磁盘读取而不会无限缓存(Reads only while the subscriber has requested batches, so a slow
+	 * downstream throttles disk reads instead of buffering without bound). 每批保存原始文本和字段位置, 字段在访问时才转换(Each
+	 * batch keeps the raw text and field spans, fields are converted on access).
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @param batchRows
+	 *            每批行数(Rows per batch)
+	 * @return Flow.Publisher, 只能订阅一次(Subscribe once)
+	 */
+	public static Flow.Publisher<RowBatch> publish(String file, String[] cols, int headerLine, CsvDialect dialect, int batchRows) {
+		return new BatchPublisher(() -> new ChannelReader(file, 0, Long.MAX_VALUE, -1), cols, headerLine, dialect, batchRows);
+	}
+
+	/**
+	 * 按需求读取字节流的行批次发布者; 取消订阅会关闭字节流(Publisher of row batches read on demand from a byte channel; cancelling
+	 * closes the channel)
+	 * 
+	 * @param ch
+	 *            字节流：socket、对象存储流等(Byte channel: socket, object-store stream...)
+	 * @param charset
+	 *            字符集, null为UTF-8(Charset, null for UTF-8)
+	 * @see #publish(String, String[], int, CsvDialect, int)
+	 */
+	public static Flow.Publisher<RowBatch> publish(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, int headerLine, int batchRows) {
+		return new BatchPublisher(() -> new ChannelReader(ch, -1, charset), cols, headerLine, dialect, batchRows);
+	}
+
+	/**
+	 * 异步读取表格; 第一个错误、取消或超时会停止所有线程(Read a table asynchronously; the first error, a cancel or the deadline
+	 * stops every thread)
+	 * 
+	 * <p>
+	 * 列头也在线程池中读取, 调用线程立即返回, 没有线程阻塞等待结果(The header is read on the pool too, the calling thread returns at
+	 * once and no thread is blocked waiting for the result). Future.cancel会停止读取并释放线程(Future.cancel stops the
+	 * load and releases its threads).
+	 * 
+	 * <pre>
+	 * CSV.readCsvAsync(file, null, false, 4, 2, 0, null, 30_000)
+	 * 		.thenApply(rows -&gt; store(rows))
+	 * 		.exceptionally(e -&gt; report(e));
+	 * </pre>
+	 * 
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param addHeader
+	 *            是否在结果中返回列头(Returns the column head in the result?)
+	 * @param readTH
+	 *            读取线程数(Number of read-threads)
+	 * @param parseTHPerRead
+	 *            每个读线程的处理线程数(Number of processing threads per read thread)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 * @param timeoutMillis
+	 *            超时毫秒数, 不大于0表示不限; 超时以TimeoutException结束(Deadline in milliseconds, none if not positive; ends
+	 *            with a TimeoutException)
+	 * @return CompletableFuture
+	 */
+	public static CompletableFuture<String[][]> readCsvAsync(String file, String[] cols, boolean addHeader, int readTH, int parseTHPerRead, int headerLine,
+			CsvDialect dialect, long timeoutMillis) {
+		return async(() -> new N2NStringReader(file, readTH, parseTHPerRead, headerLine, cols, dialect), r -> r.getAsync(addHeader), null, timeoutMillis);
+	}
+
+	/**
+	 * 异步读取矩阵(Read a matrix asynchronously)
+	 * 
+	 * @see #readCsvAsync(String, String[], boolean, int, int, int, CsvDialect, long)
+	 */
+	public static CompletableFuture<double[][]> readMatrixAsync(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect,
+			long timeoutMillis) {
+		return async(() -> new N2NMatrixReader(file, readTH, parseTHPerRead, headerLine, cols, dialect), r -> r.getAsync(), null, timeoutMillis);
+	}
+
+	/**
+	 * 异步读取字节流表格; 取消或超时会关闭字节流, 即使列头还未读完(Read a table from a byte channel asynchronously; a cancel or
+	 * the deadline closes the channel, even while the header is still being read)
+	 * 
+	 * @see #readCsv(ReadableByteChannel, Charset, CsvDialect, String[], boolean, int, int)
+	 * @see #readCsvAsync(String, String[], boolean, int, int, int, CsvDialect, long)
+	 */
+	public static CompletableFuture<String[][]> readCsvAsync(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, boolean addHeader,
+			int parseTH, int headerLine, long timeoutMillis) {
+		ChannelReader[] readers;
+		try {
+			readers = new ChannelReader[] { new ChannelReader(ch, -1, charset) };
+		} catch (IOException e) {
+			return failed(e);
+		}
+		return async(() -> new N2NStringReader(readers, parseTH, headerLine, cols, dialect), r -> r.getAsync(addHeader), readers[0]::abort, timeoutMillis);
+	}
+
+	/**
+	 * 异步读取字节流矩阵(Read a matrix from a byte channel asynchronously)
+	 * 
+	 * @see #readCsvAsync(ReadableByteChannel, Charset, CsvDialect, String[], boolean, int, int, long)
+	 */
+	public static CompletableFuture<double[][]> readMatrixAsync(ReadableByteChannel ch, Charset charset, CsvDialect dialect, String[] cols, int parseTH,
+			int headerLine, long timeoutMillis) {
+		ChannelReader[] readers;
+		try {
+			readers = new ChannelReader[] { new ChannelReader(ch, -1, charset) };
+		} catch (IOException e) {
+			return failed(e);
+		}
+		return async(() -> new N2NMatrixReader(readers, parseTH, headerLine, cols, dialect), r -> r.getAsync(), readers[0]::abort, timeoutMillis);
+	}
+
+	/**
+	 * 异步读取多个文件(Read many files asynchronously)
+	 * 
+	 * @see #readCsv(List, String[], boolean, int, int, CsvDialect)
+	 * @see #readCsvAsync(String, String[], boolean, int, int, int, CsvDialect, long)
+	 */
+	public static CompletableFuture<String[][]> readCsvAsync(List<String> files, String[] cols, boolean addHeader, int threads, int headerLine,
+			CsvDialect dialect, long timeoutMillis) {
+		return async(() -> new DatasetReader(files, cols, threads, headerLine, dialect), d -> d.runAsync(false, () -> d.table(addHeader)), null, timeoutMillis);
+	}
+
+	/**
+	 * 异步读取多个文件的矩阵(Read a matrix from many files asynchronously)
+	 * 
+	 * @see #readCsvAsync(List, String[], boolean, int, int, CsvDialect, long)
+	 */
+	public static CompletableFuture<double[][]> readMatrixAsync(List<String> files, String[] cols, int threads, int headerLine, CsvDialect dialect,
+			long timeoutMillis) {
+		return async(() -> new DatasetReader(files, cols, threads, headerLine, dialect), d -> d.runAsync(true, d::matrix), null, timeoutMillis);
+	}
+
+	/**
+	 * 异步分组聚合(Group and aggregate asynchronously)
+	 * 
+	 * @see #aggregate(String, Aggregation, int, int, int, CsvDialect)
+	 * @see #readCsvAsync(String, String[], boolean, int, int, int, CsvDialect, long)
+	 */
+	public static CompletableFuture<AggregateResult> aggregateAsync(String file, Aggregation agg, int readTH, int parseTHPerRead, int headerLine,
+			CsvDialect dialect, long timeoutMillis) {
+		return async(() -> new N2NAggregateReader(file, readTH, parseTHPerRead, headerLine, agg, dialect), r -> r.getAsync(), null, timeoutMillis);
+	}
+
+	/**
+	 * 异步统计每列(Profile the columns asynchronously)
+	 * 
+	 * @see #profile(String, String[], int, int, int, CsvDialect)
+	 * @see #readCsvAsync(String, String[], boolean, int, int, int, CsvDialect, long)
+	 */
+	public static CompletableFuture<ColumnStats[]> profileAsync(String file, String[] cols, int readTH, int parseTHPerRead, int headerLine, CsvDialect dialect,
+			long timeoutMillis) {
+		return async(() -> new N2NProfileReader(file, readTH, parseTHPerRead, headerLine, cols, dialect), r -> r.getAsync(), null, timeoutMillis);
+	}
+
+	/**
+	 * 在线程池中打开读取器(读取列头)再异步读取; 结果Future异常结束(取消、超时)时停止读取(Open the reader, i.e. read the header, on
+	 * the pool and then load asynchronously; completing the result exceptionally, by cancel or deadline, stops the load)
+	 * 
+	 * @param abort
+	 *            异常结束时执行, 用于唤醒阻塞在列头上的读取, 可为null(Run on exceptional completion to wake a read blocked on the
+	 *            header, may be null)
+	 */
+	private static <R, V> CompletableFuture<V> async(Callable<R> open, Function<R, CompletableFuture<V>> load, Runnable abort, long timeoutMillis) {
+		CompletableFuture<V> result = new CompletableFuture<>();
+		if (timeoutMillis > 0) {
+			ScheduledFuture<?> t = Util.timer.schedule(() -> result.completeExceptionally(new TimeoutException("Read timed out")), timeoutMillis,
+					TimeUnit.MILLISECONDS);
+			result.whenComplete((v, e) -> t.cancel(false));
+		}
+		if (abort != null) {
+			result.whenComplete((v, e) -> {
+				if (e != null) {
+					abort.run();
+				}
+			});
+		}
+		Util.executor.execute(() -> {
+			try {
+				if (result.isDone()) {
+					return;
+				}
+				CompletableFuture<V> loading = load.apply(open.call());
+				result.whenComplete((v, e) -> {
+					if (e != null) {
+						loading.cancel(false);
+					}
+				});
+				loading.whenComplete((v, e) -> {
+					if (e != null) {
+						result.completeExceptionally(e);
+					} else {
+						result.complete(v);
+					}
+				});
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		});
+		return result;
+	}
+
+	private static <V> CompletableFuture<V> failed(Throwable e) {
+		CompletableFuture<V> f = new CompletableFuture<>();
+		f.completeExceptionally(e);
+		return f;
+	}
+
 }
@@ -3,58 +3,269 @@ package org.fastj.csv;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 public class ChannelReader implements Closeable {
 	private static final int SIZE = 8192 * 4;
+	private static final int SAMPLE = 64 * 1024;
+	private static final int PAGE = 4096;
 
-	private byte[] buf = new byte[SIZE];
-	private FileChannel fch;
+	/** 未指定读缓冲区的读取使用的默认值(Default for reads that do not pass a read buffer) */
+	static volatile ReadBuffer defaults = ReadBuffer.DEFAULT;
+	/** O_DIRECT打开选项, 不支持时为null(The O_DIRECT open option, null where unsupported) */
+	static final OpenOption DIRECT = directOption();
+
+	/** 扫描数组, 直接缓冲区读到的字节复制到这里(The scan array, bytes read into the direct buffer are copied here) */
+	private byte[] buf;
+	private volatile ReadableByteChannel fch;
 	private int cnt, nc;
 	private long start;
 	private long size;
+	private long pos = 0;
 	private long readLen = 0;
 	private final ByteBuf bbuf = ByteBuf.POOL.get();
-	private final ByteBuffer cache = ByteBuffer.wrap(buf, 0, buf.length);
+	private final ByteBuffer cache;
+	/** 按页对齐的直接缓冲区, 仅用于本地文件, 可为null(Page aligned direct buffer, local files only, may be null) */
+	private final ByteBuffer direct;
+	private final boolean ahead;
+	/** 通道以O_DIRECT打开, 读取位置和长度必须按页对齐(Channel opened with O_DIRECT, read offsets and lengths must be page aligned) */
+	private final boolean odirect;
+	/** 下一次读取的文件位置(File offset of the next read) */
+	private long fpos;
+	/** 正在进行的预读(The read ahead in flight) */
+	private Future<Integer> pending;
+	/** 预读使用的执行器, 与读线程同组(Executor for read-ahead, in the reader's group) */
+	Executor pool = Util.executor;
 	private final CharsetDecoder decoder;
+	/** 全ASCII的行可直接按字节转换(All-ASCII lines convert byte by byte); Latin-1时所有行都可以(Every line for Latin-1) */
+	private final boolean asciiFast, latin1;
+	/** 上一行含有非ASCII字节(The last line has non-ASCII bytes) */
+	private boolean high;
+	private CsvDialect dialect = CsvDialect.DEFAULT;
+	private boolean tail = false;
 
 	public ChannelReader(String file, long start, long size, int skipLine) throws IOException {
 		this(file, start, size, skipLine, StandardCharsets.UTF_8);
 	}
 
 	public ChannelReader(String file, long start, long size, int skipLine, Charset charset) throws IOException {
-		this.fch = FileChannel.open(new File(file).toPath());
+		this(file, start, size, skipLine, charset, defaults);
+	}
+
+	/**
+	 * 指定本次读取的读缓冲区(With the read buffer of this read)
+	 */
+	ChannelReader(String file, long start, long size, int skipLine, Charset charset, ReadBuffer buffer) throws IOException {
+		this(file, start, size, skipLine, charset, buffer, buffer.bypassCache ? openDirect(file) : null);
+	}
+
+	private ChannelReader(String file, long start, long size, int skipLine, Charset charset, ReadBuffer buffer, FileChannel direct)
+			throws IOException {
+		this(direct != null ? direct.position(start) : FileChannel.open(new File(file).toPath()).position(start), start, size, skipLine, charset, true,
+				direct != null, SIZE, buffer);
+	}
+
+	/**
+	 * 读取任意字节流，不支持分块(Reads any byte channel: socket, stream, memory; no block split)
+	 */
+	public ChannelReader(ReadableByteChannel ch, int skipLine, Charset charset) throws IOException {
+		this(ch, 0, Long.MAX_VALUE, skipLine, charset, false, false, SIZE, ReadBuffer.DEFAULT);
+	}
+
+	/**
+	 * 指定堆缓冲区大小, 不支持分块(With a given heap buffer size, no block split)
+	 */
+	ChannelReader(ReadableByteChannel ch, int skipLine, Charset charset, int bufferSize) throws IOException {
+		this(ch, 0, Long.MAX_VALUE, skipLine, charset, false, false, Math.max(SIZE, bufferSize), ReadBuffer.DEFAULT);
+	}
+
+	/**
+	 * 从通道的当前位置读取一块, 指定堆缓冲区大小; 通道位置需为start(One block from the channel's current position, which must be
+	 * start, with a given heap buffer size)
+	 */
+	ChannelReader(ReadableByteChannel ch, long start, long size, int skipLine, int bufferSize) throws IOException {
+		this(ch, start, size, skipLine, StandardCharsets.UTF_8, false, false, bufferSize, ReadBuffer.DEFAULT);
+	}
+
+	private ChannelReader(ReadableByteChannel ch, long start, long size, int skipLine, Charset charset, boolean file, boolean odirect, int heap,
+			ReadBuffer buffer) throws IOException {
+		this.fch = ch;
 		this.start = start;
 		this.size = size;
 		this.decoder = charset != null ? charset.newDecoder() : StandardCharsets.UTF_8.newDecoder();
+		Charset cs = decoder.charset();
+		this.latin1 = cs.equals(StandardCharsets.ISO_8859_1);
+		this.asciiFast = latin1 || cs.equals(StandardCharsets.UTF_8) || cs.equals(StandardCharsets.US_ASCII);
 		this.readLen = 0;
-		this.fch.position(start);
+		int bsize = buffer.bytes;
+		boolean ra = buffer.readAhead;
+		this.odirect = odirect;
+		if (file && (bsize > SIZE || ra || odirect)) {
+			// 不超过本块长度加一行的余量, 小块和小文件不分配整个配置的缓冲区(No more than the block plus room for its last line, so
+			// small blocks and small files do not allocate the whole configured buffer)
+			long block = Math.max(0, Math.min(size, ((FileChannel) ch).size() - start));
+			bsize = (int) Math.min(bsize, ((block + PAGE - 1) & -PAGE) + SIZE);
+			bsize = Math.max(SIZE, (bsize + PAGE - 1) & -PAGE);
+			this.direct = ByteBuffer.allocateDirect(bsize + PAGE).alignedSlice(PAGE);
+			this.ahead = ra;
+			this.fpos = ((FileChannel) ch).position();
+		} else {
+			bsize = heap;
+			this.direct = null;
+			this.ahead = false;
+		}
+		this.buf = new byte[bsize];
+		this.cache = ByteBuffer.wrap(buf, 0, buf.length);
 		if (skipLine >= 0) {
 			synchronized (this) {
 				while (skipLine-- >= 0) {
 					skipLine();
-					readLen = fch.position() - cnt + nc - start;
+					readLen = pos - cnt + nc;
 				}
 			}
 		}
 	}
 
+	/**
+	 * 设置方言(Set the dialect used to split lines and skip comments)
+	 */
+	ChannelReader dialect(CsvDialect dialect) {
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		return this;
+	}
+
+	/**
+	 * 只返回有换行符结尾的完整行, 末尾不完整的行留给下次读取(Return only terminated lines, a trailing partial line is left for the
+	 * next read)
+	 */
+	ChannelReader tail(boolean tail) {
+		this.tail = tail;
+		return this;
+	}
+
+	/**
+	 * 已读取行之后的文件位置(File offset right after the last line returned)
+	 */
+	long position() {
+		return start + readLen;
+	}
+
+	/**
+	 * 按开头样本的平均行长估计本块行数, 不移动读取位置(Estimate the row count of this block from the average line length of a
+	 * leading sample, the read position is not moved)
+	 *
+	 * @return 估计行数, 非文件通道时为-1(Estimated rows, -1 if the channel is not a file)
+	 */
+	int estimateRows() throws IOException {
+		if (!(fch instanceof FileChannel)) {
+			return -1;
+		}
+		FileChannel fc = (FileChannel) fch;
+		long bytes = Math.min(size, fc.size() - start);
+		if (bytes <= 0) {
+			return 0;
+		}
+		int len;
+		int lines = 0;
+		if (odirect) {
+			// 从对齐的位置读整页(Whole pages from an aligned offset)
+			int skip = (int) (start & (PAGE - 1));
+			int want = (int) Math.min(SAMPLE, bytes);
+			ByteBuffer sample = ByteBuffer.allocateDirect(SAMPLE + 3 * PAGE).alignedSlice(PAGE);
+			sample.limit((skip + want + PAGE - 1) & -PAGE);
+			int n;
+			while (sample.hasRemaining() && (n = fc.read(sample, start - skip + sample.position())) > 0 && (n & (PAGE - 1)) == 0) {
+			}
+			len = Math.max(0, Math.min(want, sample.position() - skip));
+			for (int i = 0; i < len; i++) {
+				if (sample.get(skip + i) == '\n') {
+					lines++;
+				}
+			}
+		} else {
+			ByteBuffer sample = ByteBuffer.allocate((int) Math.min(SAMPLE, bytes));
+			while (sample.hasRemaining() && fc.read(sample, start + sample.position()) > 0) {
+			}
+			len = sample.position();
+			byte[] b = sample.array();
+			for (int i = 0; i < len; i++) {
+				if (b[i] == '\n') {
+					lines++;
+				}
+			}
+		}
+		if (lines == 0) {
+			return 1;
+		}
+		return (int) Math.min(Integer.MAX_VALUE - 8, bytes * lines / len + 1);
+	}
+
 	CharBuf readLine(CharBuf cbuf) throws IOException {
 		synchronized (this) {
-			ByteBuf buf = readLine0();
+			return nextLine(cbuf);
+		}
+	}
+
+	/**
+	 * 不加锁的readLine, 只用于单线程独占的读取器(readLine without the lock, for readers owned by a single thread)
+	 */
+	CharBuf nextLine(CharBuf cbuf) throws IOException {
+		ByteBuf buf;
+		final char comment = dialect.comment;
+		do {
+			buf = readLine0();
 			if (buf == null) {
 				return null;
 			}
-			readLen = fch.position() - cnt + nc - start;
-			cbuf = b2c(buf, cbuf);
-			return cbuf;
-		}
+			readLen = pos - cnt + nc;
+		} while (comment != CsvDialect.NONE && buf.count > 0 && buf.value[0] == comment);
+		return b2c(buf, cbuf);
+	}
+
+	/**
+	 * 不解码的下一行, 与nextLine相同地跳过注释行; 返回的缓冲区在下次读取时复用(The next line undecoded, comment lines skipped as in
+	 * nextLine; the returned buffer is reused by the next read)
+	 */
+	ByteBuf nextBytes() throws IOException {
+		ByteBuf buf;
+		final char comment = dialect.comment;
+		do {
+			buf = readLine0();
+			if (buf == null) {
+				return null;
+			}
+			readLen = pos - cnt + nc;
+		} while (comment != CsvDialect.NONE && buf.count > 0 && buf.value[0] == comment);
+		return buf;
+	}
+
+	/**
+	 * 上一行的字节可以逐个作为Latin-1字符: 字符集为Latin-1, 或为ASCII兼容字符集且该行全为ASCII(The bytes of the last line map one to
+	 * one to Latin-1 chars: the charset is Latin-1, or ASCII compatible and the line is all ASCII)
+	 */
+	boolean latin1Line() {
+		return latin1 || (asciiFast && !high);
+	}
+
+	/**
+	 * 解码nextBytes返回的行(Decode a line returned by nextBytes)
+	 */
+	CharBuf decode(ByteBuf line, CharBuf cbuf) throws IOException {
+		return b2c(line, cbuf);
 	}
 
 	private ByteBuf readLine0() throws IOException {
@@ -65,6 +276,12 @@ public class ChannelReader implements Closeable {
 		ByteBuf chs = bbuf;
 		chs.reset();
 		int startChar;
+		high = false;
+
+		final boolean fastQuote = dialect.isDefaultQuote();
+		final byte quote = (byte) dialect.quote;
+		final byte esc = (byte) dialect.escape;
+		boolean escaped = false;
 
 		byte bit = 0x00;
 		for (;;) {
@@ -72,7 +289,7 @@ public class ChannelReader implements Closeable {
 				fill();
 
 			if (nc >= cnt) {
-				if (chs.length() > 0)
+				if (chs.length() > 0 && !tail)
 					return chs;
 				else
 					return null;
@@ -81,19 +298,50 @@ public class ChannelReader implements Closeable {
 			byte c = 0;
 			int i;
 
-			for (i = nc; i < cnt; i++) {
-				c = buf[i];
-				if (c > '"' || c < 0) {
-					continue;
-				}
-				if (c == '"') {
-					bit ^= 0x01;
-					continue;
+			if (fastQuote) {
+				for (i = nc; i < cnt; i++) {
+					c = buf[i];
+					if (c > '"') {
+						continue;
+					}
+					if (c < 0) {
+						high = true;
+						continue;
+					}
+					if (c == '"') {
+						bit ^= 0x01;
+						continue;
+					}
+					if ((c == '\n') || (c == '\r')) {
+						if (bit == 0) {
+							eol = true;
+							break;
+						}
+					}
 				}
-				if ((c == '\n') || (c == '\r')) {
-					if (bit == 0) {
-						eol = true;
-						break;
+			} else {
+				for (i = nc; i < cnt; i++) {
+					c = buf[i];
+					if (c < 0) {
+						high = true;
+					}
+					if (escaped) {
+						escaped = false;
+						continue;
+					}
+					if (c == quote) {
+						bit ^= 0x01;
+						continue;
+					}
+					if (c == esc && bit != 0) {
+						escaped = true;
+						continue;
+					}
+					if ((c == '\n') || (c == '\r')) {
+						if (bit == 0) {
+							eol = true;
+							break;
+						}
 					}
 				}
 			}
@@ -108,7 +356,12 @@ public class ChannelReader implements Closeable {
 				if (nc >= cnt)
 					fill();
 
-				if (c == '\r' && (buf[nc] == '\n')) {
+				if (c == '\r' && nc >= cnt && tail) {
+					// 可能是\r\n被截断(Possibly a split \r\n, wait for more data)
+					return null;
+				}
+
+				if (c == '\r' && nc < cnt && (buf[nc] == '\n')) {
 					nc++;
 				}
 
@@ -163,7 +416,7 @@ public class ChannelReader implements Closeable {
 				if (nc >= cnt)
 					fill();
 
-				if (c == '\r' && (buf[nc] == '\n')) {
+				if (c == '\r' && nc < cnt && (buf[nc] == '\n')) {
 					nc++;
 				}
 
@@ -177,8 +430,28 @@ public class ChannelReader implements Closeable {
 	private final CharBuf b2c(ByteBuf bbuf, CharBuf cbuf) throws IOException {
 		cbuf = cbuf == null ? CharBuf.POOL.get() : cbuf;
 		cbuf.reset();
-		ByteBuffer bb = ByteBuffer.wrap(bbuf.value, 0, bbuf.count);
 		cbuf.ensureCapacity(bbuf.count);
+		if (asciiFast) {
+			// 不经过解码器(No decoder call)
+			final byte[] b = bbuf.value;
+			final char[] v = cbuf.value;
+			final int n = bbuf.count;
+			int i = 0;
+			if (latin1) {
+				for (; i < n; i++) {
+					v[i] = (char) (b[i] & 0xFF);
+				}
+			} else {
+				for (; i < n && b[i] >= 0; i++) {
+					v[i] = (char) b[i];
+				}
+			}
+			if (i == n) {
+				cbuf.count = n;
+				return cbuf;
+			}
+		}
+		ByteBuffer bb = ByteBuffer.wrap(bbuf.value, 0, bbuf.count);
 		CharBuffer cb = CharBuffer.wrap(cbuf.value, 0, cbuf.capacity);
 		cb.clear();
 
@@ -192,22 +465,159 @@ public class ChannelReader implements Closeable {
 	}
 
 	private void fill() throws IOException {
-		cache.clear();
-		int n = fch.read(cache);
-		while (n == 0) {
+		int n;
+		if (direct == null) {
+			cache.clear();
 			n = fch.read(cache);
+			while (n == 0) {
+				n = fch.read(cache);
+			}
+		} else {
+			if (pending == null) {
+				prefetch();
+			}
+			n = await();
+			if (n > 0) {
+				direct.get(buf, 0, n);
+				if (ahead) {
+					// 扫描当前缓冲区时读取下一个(Read the next buffer while this one is scanned)
+					prefetch();
+				}
+			}
 		}
 		if (n > 0) {
+			pos += n;
 			cnt = n;
 			nc = 0;
 		}
 	}
 
+	/**
+	 * 用文件位置读取填满直接缓冲区, 预读时在执行器上进行(Fill the direct buffer with positional reads, on the executor when
+	 * reading ahead)
+	 */
+	private void prefetch() {
+		FileChannel fc = (FileChannel) fch;
+		// 块内剩余字节加上最后一行的余量, 小块不读满大缓冲区(The rest of the block plus room for its last line, small blocks
+		// do not read a whole large buffer)
+		long rest = Math.max(0, size - (fpos - start));
+		int len = (int) Math.min(buf.length, Math.min(buf.length, rest) + SIZE);
+		long at = fpos;
+		direct.clear().limit(len);
+		if (!ahead) {
+			pending = null;
+			return;
+		}
+		FutureTask<Integer> task = new FutureTask<>(() -> read(fc, at));
+		pool.execute(task);
+		pending = task;
+	}
+
+	private int await() throws IOException {
+		if (pending == null) {
+			return read((FileChannel) fch, fpos);
+		}
+		Future<Integer> f = pending;
+		pending = null;
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			f.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Read interrupted");
+		} catch (ExecutionException e) {
+			Throwable c = e.getCause();
+			if (c instanceof IOException) {
+				throw (IOException) c;
+			}
+			throw new IOException(c);
+		}
+	}
+
+	/**
+	 * @return 读到的字节数, 缓冲区已定位到这些字节(Bytes read, the buffer is positioned on them); 文件结束时为-1(-1 at end of file)
+	 */
+	private int read(FileChannel fc, long at) throws IOException {
+		// O_DIRECT从对齐的位置读整页, 跳过前面多读的部分(O_DIRECT reads whole pages from an aligned offset and skips the extra
+		// leading bytes)
+		int skip = 0;
+		if (odirect) {
+			skip = (int) (at & (PAGE - 1));
+			direct.limit(Math.min(direct.capacity(), (skip + direct.limit() + PAGE - 1) & -PAGE));
+		}
+		long from = at - skip;
+		int total = 0;
+		while (direct.hasRemaining()) {
+			int n = fc.read(direct, from + total);
+			if (n < 0) {
+				break;
+			}
+			total += n;
+			if (odirect && (total & (PAGE - 1)) != 0) {
+				// 文件末尾的不完整页(A partial page at end of file)
+				break;
+			}
+		}
+		if (total <= skip) {
+			return -1;
+		}
+		// 对齐后的缓冲区可能比扫描数组多一页(The aligned buffer may be a page longer than the scan array)
+		int n = Math.min(total - skip, buf.length);
+		direct.flip().position(skip).limit(skip + n);
+		fpos = at + n;
+		return n;
+	}
+
+	/**
+	 * 以O_DIRECT打开, 不支持时(系统、文件系统或JDK)返回null(Open with O_DIRECT, null where the OS, file system or JDK does not
+	 * support it)
+	 */
+	private static FileChannel openDirect(String file) {
+		if (DIRECT == null) {
+			return null;
+		}
+		try {
+			return FileChannel.open(new File(file).toPath(), StandardOpenOption.READ, DIRECT);
+		} catch (IOException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static OpenOption directOption() {
+		try {
+			// JDK 10+, jdk.unsupported
+			Class c = Class.forName("com.sun.nio.file.ExtendedOpenOption");
+			return (OpenOption) Enum.valueOf(c, "DIRECT");
+		} catch (ClassNotFoundException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 从其它线程关闭通道, 唤醒阻塞的读取, 不归还缓冲区(Close the channel from another thread to wake a blocked read, buffers
+	 * are not returned)
+	 */
+	void abort() {
+		ReadableByteChannel ch = fch;
+		if (ch != null) {
+			try {
+				ch.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
 	@Override
 	public void close() throws IOException {
 		synchronized (this) {
 			if (fch == null)
 				return;
+			if (pending != null) {
+				pending.cancel(false);
+				pending = null;
+			}
 			try {
 				fch.close();
 				ByteBuf.POOL.release(bbuf);
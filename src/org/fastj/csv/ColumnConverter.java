@@ -0,0 +1,19 @@
+package org.fastj.csv;
+
+/**
+ * 字段到对象的转换, 在处理线程中执行(Field to object conversion, run on the parse tasks)
+ *
+ * @param <T>
+ *            值类型(Value type)
+ */
+@FunctionalInterface
+public interface ColumnConverter<T> {
+
+	/**
+	 * @param field
+	 *            去掉引号后的字段, 视图在调用后复用, 不要保存(The unquoted field; the view is reused after the call, do not keep
+	 *            it); 缺失的字段为空视图(A missing field is an empty view)
+	 */
+	T convert(FieldView field);
+
+}
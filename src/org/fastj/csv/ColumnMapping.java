@@ -0,0 +1,107 @@
+package org.fastj.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列到值的转换定义, 转换在处理线程中与解析一起执行(Column to value conversions, run on the parse tasks together with parsing)
+ *
+ * <pre>
+ * ColumnMapping m = new ColumnMapping().asLong("id").asDouble("amount").as("day", f -&gt; LocalDate.parse(f));
+ * TypedColumns c = CSV.readColumns(file, m, 4, 8, 0, null);
+ * </pre>
+ *
+ * <p>
+ * 默认的数值转换忽略前后空白, 空白或缺失的字段为NaN或0(Default numeric conversions skip surrounding whitespace; blank or
+ * missing fields give NaN or 0).
+ */
+public final class ColumnMapping {
+
+	enum Kind {
+		DOUBLE, LONG, OBJECT
+	}
+
+	static final ToDoubleConverter DOUBLE = f -> blank(f) ? Double.NaN : f.toDouble();
+	static final ToLongConverter LONG = ColumnMapping::parseLong;
+	static final ColumnConverter<String> STRING = FieldView::toString;
+
+	final List<String> cols = new ArrayList<>();
+	final List<Kind> kinds = new ArrayList<>();
+	final List<Object> converters = new ArrayList<>();
+
+	public ColumnMapping asDouble(String col) {
+		return add(col, Kind.DOUBLE, DOUBLE);
+	}
+
+	public ColumnMapping asDouble(String col, ToDoubleConverter converter) {
+		return add(col, Kind.DOUBLE, converter);
+	}
+
+	public ColumnMapping asLong(String col) {
+		return add(col, Kind.LONG, LONG);
+	}
+
+	public ColumnMapping asLong(String col, ToLongConverter converter) {
+		return add(col, Kind.LONG, converter);
+	}
+
+	public ColumnMapping asString(String col) {
+		return add(col, Kind.OBJECT, STRING);
+	}
+
+	public <T> ColumnMapping as(String col, ColumnConverter<T> converter) {
+		return add(col, Kind.OBJECT, converter);
+	}
+
+	private ColumnMapping add(String col, Kind kind, Object converter) {
+		if (col == null || converter == null) {
+			throw new NullPointerException("Column and converter must not null");
+		}
+		if (cols.contains(col)) {
+			throw new IllegalArgumentException("Column mapped twice: " + col);
+		}
+		cols.add(col);
+		kinds.add(kind);
+		converters.add(converter);
+		return this;
+	}
+
+	/**
+	 * 整数, 与数值转换一样忽略前后空白, 空白字段为0(Integer value; like the numeric conversion it skips surrounding whitespace, a
+	 * blank field gives 0)
+	 *
+	 * @throws NumberFormatException
+	 *             不是整数或超出long范围(Not an integer or out of long range)
+	 */
+	static long parseLong(CharSequence f) {
+		int s = 0, e = f.length();
+		while (s < e && f.charAt(s) <= ' ') {
+			s++;
+		}
+		while (e > s && f.charAt(e - 1) <= ' ') {
+			e--;
+		}
+		return s == e ? 0L : Long.parseLong(f, s, e, 10);
+	}
+
+	static boolean blank(CharSequence f) {
+		for (int i = 0, n = f.length(); i < n; i++) {
+			if (f.charAt(i) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int size() {
+		return cols.size();
+	}
+
+	/**
+	 * 需要读取的列, 按定义顺序(Columns to read, in definition order)
+	 */
+	String[] columns() {
+		return cols.toArray(new String[cols.size()]);
+	}
+
+}
@@ -0,0 +1,120 @@
+package org.fastj.csv;
+
+/**
+ * 单列统计(Statistics of one column)
+ *
+ * <p>
+ * 最小值、最大值、均值只统计数值字段, 字段长度为去引号前的字符数(Min, max and mean cover numeric fields only, lengths are raw
+ * character counts including quotes).
+ */
+public final class ColumnStats {
+
+	final String name;
+	final long rows;
+	final long nulls;
+	final long empties;
+	final long numerics;
+	final double min;
+	final double max;
+	final double sum;
+	final int minLength;
+	final int maxLength;
+	final long distinct;
+
+	ColumnStats(String name, long rows, long nulls, long empties, long numerics, double min, double max, double sum, int minLength, int maxLength,
+			long distinct) {
+		this.name = name;
+		this.rows = rows;
+		this.nulls = nulls;
+		this.empties = empties;
+		this.numerics = numerics;
+		this.min = min;
+		this.max = max;
+		this.sum = sum;
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		this.distinct = distinct;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 总行数(Number of rows)
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * 行中缺少该字段的次数(Rows too short to contain the field)
+	 */
+	public long getNullCount() {
+		return nulls;
+	}
+
+	/**
+	 * 空字段数(Empty fields)
+	 */
+	public long getEmptyCount() {
+		return empties;
+	}
+
+	/**
+	 * 数值字段数(Numeric fields)
+	 */
+	public long getNumericCount() {
+		return numerics;
+	}
+
+	/**
+	 * 所有非空字段都是数值(Are all non-empty fields numeric?)
+	 */
+	public boolean isNumeric() {
+		return numerics > 0 && numerics == rows - nulls - empties;
+	}
+
+	/**
+	 * @return 数值最小值, 无数值时为NaN(Smallest numeric value, NaN if none)
+	 */
+	public double getMin() {
+		return numerics == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * @return 数值最大值, 无数值时为NaN(Largest numeric value, NaN if none)
+	 */
+	public double getMax() {
+		return numerics == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * @return 数值均值, 无数值时为NaN(Mean of numeric values, NaN if none)
+	 */
+	public double getMean() {
+		return numerics == 0 ? Double.NaN : sum / numerics;
+	}
+
+	public int getMinLength() {
+		return minLength;
+	}
+
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * HyperLogLog估计的不同值个数, 误差约1.6%(Approximate distinct count by HyperLogLog, about 1.6% error)
+	 */
+	public long getDistinct() {
+		return distinct;
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnStats[" + name + ", rows=" + rows + ", nulls=" + nulls + ", empties=" + empties + ", numerics=" + numerics + ", min=" + getMin()
+				+ ", max=" + getMax() + ", mean=" + getMean() + ", length=" + minLength + ".." + maxLength + ", distinct~" + distinct + "]";
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.fastj.csv;
+
+/**
+ * 列类型, 由窄到宽(Column type, from the cheapest parse path to the widest)
+ */
+public enum ColumnType {
+	/** 整数(Integral numbers) */
+	LONG,
+	/** 浮点数(Floating point numbers) */
+	DOUBLE,
+	/** 字符串(Anything else) */
+	STRING;
+
+	boolean isNumeric() {
+		return this != STRING;
+	}
+
+	/**
+	 * 推断单个字段的类型(Infer the type of one field, the field must not be empty)
+	 */
+	static ColumnType of(String s) {
+		int i = 0;
+		int len = s.length();
+		char c = s.charAt(0);
+		if (c == '-' || c == '+') {
+			i++;
+		}
+		if (i == len) {
+			return STRING;
+		}
+
+		boolean digits = true;
+		for (int j = i; j < len; j++) {
+			c = s.charAt(j);
+			if (c < '0' || c > '9') {
+				digits = false;
+				break;
+			}
+		}
+		if (digits && len - i <= 18) {
+			return LONG;
+		}
+
+		c = s.charAt(len - 1);
+		if (c != '.' && (c < '0' || c > '9')) {
+			// NaN, Infinity, 1d, 1f 不视为数值(Java-only literals are not numbers in CSV)
+			return STRING;
+		}
+		try {
+			Double.parseDouble(s);
+			return DOUBLE;
+		} catch (NumberFormatException e) {
+			return STRING;
+		}
+	}
+
+	ColumnType widen(ColumnType other) {
+		return other.ordinal() > ordinal() ? other : this;
+	}
+}
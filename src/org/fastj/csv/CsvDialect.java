@@ -0,0 +1,113 @@
+package org.fastj.csv;
+
+/**
+ * CSV方言：分隔符、引号、转义符、注释行、去空格(CSV dialect: delimiter, quote, escape, comment lines, trimming)
+ *
+ * <p>
+ * 分隔符、引号、转义符、注释符必须是ASCII字符(All special characters must be ASCII). 默认方言走原有的逗号快速路径, 其它方言使用通用循环(The
+ * default dialect keeps the hard-coded comma loops, other dialects use the generic loops with the characters hoisted into
+ * locals).
+ */
+public final class CsvDialect {
+
+	/** 无注释行(No comment lines) */
+	public static final char NONE = 0;
+
+	public static final CsvDialect DEFAULT = new CsvDialect(',', '"', '"', NONE, false);
+	public static final CsvDialect TSV = new CsvDialect('\t', '"', '"', NONE, false);
+	public static final CsvDialect PIPE = new CsvDialect('|', '"', '"', NONE, false);
+	public static final CsvDialect SEMICOLON = new CsvDialect(';', '"', '"', NONE, false);
+
+	final char delimiter;
+	final char quote;
+	final char escape;
+	final char comment;
+	final boolean trim;
+
+	/**
+	 * @param delimiter
+	 *            分隔符(Field delimiter)
+	 * @param quote
+	 *            引号(Quote character)
+	 * @param escape
+	 *            引号内的转义符, 与引号相同时表示双写引号转义(Escape inside quotes, same as quote means doubled quotes)
+	 * @param comment
+	 *            注释行首字符, NONE表示无注释(First character of comment lines, NONE for no comments)
+	 * @param trim
+	 *            是否去掉字段首尾空格(Trim spaces around fields?)
+	 */
+	public CsvDialect(char delimiter, char quote, char escape, char comment, boolean trim) {
+		if (delimiter > 127 || quote > 127 || escape > 127 || comment > 127) {
+			throw new IllegalArgumentException("Dialect characters must be ASCII");
+		}
+		if (delimiter == quote || delimiter == '\r' || delimiter == '\n') {
+			throw new IllegalArgumentException("Invalid delimiter: " + (int) delimiter);
+		}
+		this.delimiter = delimiter;
+		this.quote = quote;
+		this.escape = escape;
+		this.comment = comment;
+		this.trim = trim;
+	}
+
+	public CsvDialect withDelimiter(char delimiter) {
+		return new CsvDialect(delimiter, quote, escape, comment, trim);
+	}
+
+	public CsvDialect withQuote(char quote) {
+		return new CsvDialect(delimiter, quote, quote == this.quote ? escape : quote, comment, trim);
+	}
+
+	public CsvDialect withEscape(char escape) {
+		return new CsvDialect(delimiter, quote, escape, comment, trim);
+	}
+
+	public CsvDialect withComment(char comment) {
+		return new CsvDialect(delimiter, quote, escape, comment, trim);
+	}
+
+	public CsvDialect withTrim(boolean trim) {
+		return new CsvDialect(delimiter, quote, escape, comment, trim);
+	}
+
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	public char getQuote() {
+		return quote;
+	}
+
+	public char getEscape() {
+		return escape;
+	}
+
+	public char getComment() {
+		return comment;
+	}
+
+	public boolean isTrim() {
+		return trim;
+	}
+
+	/**
+	 * 字段切分能否走逗号快速路径(Can the field tokenizer use the hard-coded comma loop?)
+	 */
+	boolean isDefault() {
+		return delimiter == ',' && quote == '"' && escape == '"' && !trim;
+	}
+
+	/**
+	 * 行切分能否走默认快速路径(Can the line splitter use the hard-coded '"' loop?)
+	 */
+	boolean isDefaultQuote() {
+		return quote == '"' && escape == '"';
+	}
+
+	@Override
+	public String toString() {
+		return "CsvDialect[delimiter=" + (int) delimiter + ", quote=" + (int) quote + ", escape=" + (int) escape + ", comment=" + (int) comment
+				+ ", trim=" + trim + "]";
+	}
+
+}
@@ -0,0 +1,110 @@
+package org.fastj.csv;
+
+/**
+ * 一行的字段视图, 字段内容保存在处理线程共享的字符块中(Field views of one row, the field contents live in a char chunk shared by
+ * the rows of one parse task)
+ *
+ * <p>
+ * 每行只有一个对象, 字段在访问时才创建String(One object per row, Strings are created only on access). 缺失的字段(行的字段数不足)为null(Missing
+ * fields, on short rows, are null).
+ */
+public final class CsvRow {
+
+	private final char[] chars;
+	private final int[] bounds;
+	private final int at;
+	private final int cols;
+
+	/**
+	 * @param bounds
+	 *            从at开始每列两个值: 开始、结束, 缺失时开始为-1(From at, two ints per column: start and end, start -1 when
+	 *            missing)
+	 */
+	CsvRow(char[] chars, int[] bounds, int at, int cols) {
+		this.chars = chars;
+		this.bounds = bounds;
+		this.at = at;
+		this.cols = cols;
+	}
+
+	public int size() {
+		return cols;
+	}
+
+	public boolean isMissing(int col) {
+		return bounds[index(col)] < 0;
+	}
+
+	/**
+	 * 字段视图, 缺失为null(Field view, null when missing)
+	 */
+	public FieldView get(int col) {
+		int i = index(col);
+		int s = bounds[i];
+		return s < 0 ? null : new FieldView(chars, s, bounds[i + 1] - s);
+	}
+
+	/**
+	 * 把字段放入可重复使用的视图, 不创建对象(Point a reusable view at the field, no allocation)
+	 *
+	 * @return 字段缺失时为false(false when the field is missing)
+	 */
+	public boolean get(int col, FieldView into) {
+		int i = index(col);
+		int s = bounds[i];
+		if (s < 0) {
+			return false;
+		}
+		into.set(chars, s, bounds[i + 1] - s);
+		return true;
+	}
+
+	/**
+	 * 字段值, 缺失为null(Field value, null when missing)
+	 */
+	public String getString(int col) {
+		int i = index(col);
+		int s = bounds[i];
+		return s < 0 ? null : new String(chars, s, bounds[i + 1] - s);
+	}
+
+	/**
+	 * 字段数值, 缺失为0.0(Numeric field value, 0.0 when missing)
+	 *
+	 * @throws NumberFormatException
+	 *             不是数值(Not a number)
+	 */
+	public double getDouble(int col) {
+		int i = index(col);
+		int s = bounds[i];
+		return s < 0 ? 0.0 : Util.parseDouble(chars, s, bounds[i + 1], CsvDialect.NONE);
+	}
+
+	public String[] toArray() {
+		String[] r = new String[cols];
+		for (int c = 0; c < cols; c++) {
+			r[c] = getString(c);
+		}
+		return r;
+	}
+
+	private int index(int col) {
+		if (col < 0 || col >= cols) {
+			throw new IndexOutOfBoundsException("col " + col);
+		}
+		return at + (col << 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int c = 0; c < cols; c++) {
+			if (c > 0) {
+				sb.append(", ");
+			}
+			sb.append(getString(c));
+		}
+		return sb.append(']').toString();
+	}
+
+}
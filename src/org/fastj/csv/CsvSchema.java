@@ -0,0 +1,150 @@
+package org.fastj.csv;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 预先解析的列头: 列名、列名索引、方言和列头行, 可在同结构文件的多次读取中重复使用(A header parsed once: names, a hashed name
+ * index, dialect and header line, reusable across many reads of same-shaped files)
+ *
+ * <p>
+ * 按schema读取时只跳过列头行, 不再解析; 从文件读出的schema还会逐字符比较列头行, 不一致时报错(Reads with a schema only skip the
+ * header line, no parsing; a schema read from a file also compares the raw header line and fails on a mismatch).
+ *
+ * <p>
+ * 不可变, 线程安全(Immutable, thread safe).
+ */
+public final class CsvSchema {
+
+	final String[] header;
+	final int headerLine;
+	final CsvDialect dialect;
+	/** 原始列头行, 用于校验; 可为null(Raw header line for the check; may be null) */
+	final char[] raw;
+	private final Map<String, Integer> index;
+
+	private CsvSchema(String[] header, int headerLine, CsvDialect dialect, char[] raw) {
+		this.header = header;
+		this.headerLine = headerLine;
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		this.raw = raw;
+		this.index = Util.indexOf(header);
+	}
+
+	/**
+	 * 读取文件列头(Read the header of a file)
+	 *
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public static CsvSchema read(String file, int headerLine, CsvDialect dialect) throws IOException {
+		CsvDialect d = dialect != null ? dialect : CsvDialect.DEFAULT;
+		try (ChannelReader r = new ChannelReader(file, 0, Long.MAX_VALUE, -1)) {
+			r.dialect(d);
+			CharBuf hl = null;
+			int headline = headerLine;
+			while (headline-- >= 0) {
+				hl = r.readLine(hl);
+			}
+			if (hl == null) {
+				throw new IOException("No header line " + headerLine + " in " + file);
+			}
+			try {
+				return new CsvSchema(Util.parseSimple(hl, d), headerLine, d, Arrays.copyOf(hl.value, hl.count));
+			} finally {
+				CharBuf.POOL.release(hl);
+			}
+		}
+	}
+
+	/**
+	 * 由已知列名创建, 读取时不校验列头行(From known names, the header line is not checked on read)
+	 */
+	public static CsvSchema of(String[] header, int headerLine, CsvDialect dialect) {
+		return new CsvSchema(header.clone(), headerLine, dialect, null);
+	}
+
+	public String[] getHeader() {
+		return header.clone();
+	}
+
+	public int getHeaderLine() {
+		return headerLine;
+	}
+
+	public CsvDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * 列数(Number of columns)
+	 */
+	public int size() {
+		return header.length;
+	}
+
+	/**
+	 * 列号, 重名时为第一个, 不存在为-1(Column index, the first on duplicates, -1 if absent)
+	 */
+	public int indexOf(String name) {
+		Integer j = index.get(name);
+		return j == null ? -1 : j;
+	}
+
+	/**
+	 * 除指定列外的所有列名, 按文件顺序, 可直接作为读取的cols参数(Every column name except the given ones, in file order, ready to
+	 * pass as cols to a read)
+	 *
+	 * @throws IllegalArgumentException
+	 *             有不存在的列(A column does not exist)
+	 */
+	public String[] exclude(String... cols) {
+		vidx(cols);
+		int[] vidx = Util.createVidxExclude(header, cols);
+		String[] names = new String[vidx.length];
+		for (int i = 0; i < vidx.length; i++) {
+			names[i] = header[vidx[i]];
+		}
+		return names;
+	}
+
+	/**
+	 * 列名到列号, 每列O(1)(Names to file columns, O(1) per column)
+	 *
+	 * @param cols
+	 *            null表示全部(null for all)
+	 */
+	int[] vidx(String[] cols) {
+		return cols == null ? Util.createVidx(header, null) : Util.createVidx(index, cols);
+	}
+
+	/**
+	 * 文件的列头行是否与schema一致(Does a header line match the schema?)
+	 */
+	boolean matches(CharBuf line) {
+		if (raw == null) {
+			return true;
+		}
+		if (line == null || line.count != raw.length) {
+			return false;
+		}
+		char[] v = line.value;
+		for (int i = 0; i < raw.length; i++) {
+			if (v[i] != raw[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "CsvSchema[headerLine=" + headerLine + ", header=" + Arrays.toString(header) + ", " + dialect + "]";
+	}
+
+}
@@ -0,0 +1,354 @@
+package org.fastj.csv;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 读取文件头部样本, 推断方言、列头行、换行符和列类型(Infer dialect, header line, line terminator and column types from the first
+ * bytes of a file)
+ */
+public final class CsvSniffer {
+
+	public static final int DEFAULT_SAMPLE = 64 * 1024;
+
+	private static final char[] DELIMITERS = { ',', '\t', ';', '|' };
+	private static final char COMMENT = '#';
+
+	private CsvSniffer() {
+	}
+
+	public static SniffResult sniff(String file) throws IOException {
+		return sniff(file, DEFAULT_SAMPLE);
+	}
+
+	/**
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param sampleBytes
+	 *            采样字节数(Number of bytes to sample)
+	 */
+	public static SniffResult sniff(String file, int sampleBytes) throws IOException {
+		byte[] sample = new byte[sampleBytes];
+		int len = 0;
+		boolean complete;
+		try (FileChannel fch = FileChannel.open(new File(file).toPath())) {
+			ByteBuffer bb = ByteBuffer.wrap(sample);
+			int n;
+			while (bb.hasRemaining() && (n = fch.read(bb)) >= 0) {
+				len += n;
+			}
+			complete = len >= fch.size();
+		}
+		return sniff(sample, len, complete);
+	}
+
+	/**
+	 * @param complete
+	 *            样本是否为完整文件, 否则丢弃最后一行(Is the sample the whole file? Otherwise the last line is dropped)
+	 */
+	static SniffResult sniff(byte[] sample, int len, boolean complete) throws IOException {
+		char quote = quote(sample, len);
+		boolean partial = !complete;
+		if (!complete) {
+			// 截到最后一个换行符, 截断处可能在多字节字符中间(Cut back to the last line terminator, the sample may end inside a
+			// multibyte character)
+			int cut = len;
+			while (cut > 0 && sample[cut - 1] != '\n' && sample[cut - 1] != '\r') {
+				cut--;
+			}
+			if (cut > 0) {
+				len = cut;
+				// 引号成对时最后一行是完整的(The last line is whole when the quotes are balanced)
+				partial = !balanced(sample, len, quote);
+			} else {
+				// 只有一行, 去掉末尾不完整的UTF-8字符(A single line, drop a trailing incomplete UTF-8 character)
+				len = utf8Boundary(sample, len);
+			}
+		}
+		List<String> lines = readLines(sample, len, quote);
+		if (partial && lines.size() > 1) {
+			lines.remove(lines.size() - 1);
+		}
+		if (lines.isEmpty()) {
+			throw new IllegalArgumentException("Empty sample");
+		}
+
+		// 分隔符: 字段数最一致且大于1的候选(Delimiter: the candidate with the most consistent field count > 1)
+		char delimiter = ',';
+		int bestScore = -1;
+		int mode = 1;
+		for (char d : DELIMITERS) {
+			int[] counts = new int[lines.size()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = countFields(lines.get(i), d, quote);
+			}
+			int m = mode(counts);
+			if (m <= 1) {
+				continue;
+			}
+			int score = 0;
+			for (int c : counts) {
+				if (c == m) {
+					score++;
+				}
+			}
+			if (score > bestScore || (score == bestScore && m > mode)) {
+				bestScore = score;
+				delimiter = d;
+				mode = m;
+			}
+		}
+
+		// 注释行: 以'#'开头且字段数不一致(Comment lines: start with '#' and have a deviating field count)
+		boolean comments = false;
+		boolean modalComment = false;
+		for (String l : lines) {
+			if (l.length() > 0 && l.charAt(0) == COMMENT) {
+				if (countFields(l, delimiter, quote) == mode) {
+					modalComment = true;
+				} else {
+					comments = true;
+				}
+			}
+		}
+		char comment = comments && !modalComment ? COMMENT : CsvDialect.NONE;
+
+		// 列头行: 第一行字段数等于众数的非注释行(Header: the first non-comment line with the modal field count)
+		int headerIdx = -1;
+		int lineNo = -1;
+		List<String> body = new ArrayList<>();
+		for (String l : lines) {
+			if (comment != CsvDialect.NONE && l.length() > 0 && l.charAt(0) == comment) {
+				continue;
+			}
+			if (headerIdx < 0) {
+				lineNo++;
+				if (countFields(l, delimiter, quote) == mode) {
+					headerIdx = lineNo;
+					body.add(l);
+				}
+			} else {
+				body.add(l);
+			}
+		}
+
+		CsvDialect dialect = new CsvDialect(delimiter, quote, quote, comment, false);
+		boolean quoted = false;
+		int[] identity = new int[mode];
+		for (int i = 0; i < mode; i++) {
+			identity[i] = i;
+		}
+
+		CharBuf cbuf = CharBuf.POOL.get();
+		CharBuf field = CharBuf.POOL.get();
+		String[] header = null;
+		ColumnType[] types = new ColumnType[mode];
+		ColumnType[] headerTypes = new ColumnType[mode];
+		boolean[] nullable = new boolean[mode];
+		int rows = 0;
+		int padded = 0;
+		int filled = 0;
+		try {
+			for (String l : body) {
+				if (l.indexOf(quote) >= 0) {
+					quoted = true;
+				}
+				if (countFields(l, delimiter, quote) != mode) {
+					continue;
+				}
+				cbuf.reset();
+				cbuf.append(l.toCharArray(), 0, l.length());
+				String[] row = Util.parseCSVLine(cbuf, field, mode, identity, dialect);
+				if (header == null) {
+					header = row;
+					for (int i = 0; i < mode; i++) {
+						String h = row[i] == null ? "" : row[i].trim();
+						headerTypes[i] = h.isEmpty() ? null : ColumnType.of(h);
+					}
+					continue;
+				}
+				rows++;
+				for (int i = 0; i < mode; i++) {
+					String v = row[i];
+					if (v != null && !v.isEmpty()) {
+						filled++;
+						if (v.charAt(0) == ' ' || v.charAt(v.length() - 1) == ' ') {
+							padded++;
+							v = v.trim();
+						}
+					}
+					if (v == null || v.isEmpty()) {
+						nullable[i] = true;
+						continue;
+					}
+					ColumnType t = ColumnType.of(v);
+					types[i] = types[i] == null ? t : types[i].widen(t);
+				}
+			}
+		} finally {
+			CharBuf.POOL.release(cbuf);
+			CharBuf.POOL.release(field);
+		}
+
+		// 数值列的列头不是数值即认为有列头(A non-numeric cell on top of a numeric column marks a header row)
+		boolean hasHeader = rows == 0;
+		boolean anyNumeric = false;
+		for (int i = 0; i < mode; i++) {
+			if (types[i] == null) {
+				types[i] = ColumnType.STRING;
+			}
+			if (types[i].isNumeric()) {
+				anyNumeric = true;
+				hasHeader |= headerTypes[i] == ColumnType.STRING;
+			}
+		}
+		if (!anyNumeric) {
+			// 无法区分, 按有列头处理(Undecidable, readers expect a header)
+			hasHeader = true;
+		}
+
+		// 多数字段首尾有空格则去空格(Trim when most fields are padded)
+		if (padded * 2 > filled) {
+			dialect = dialect.withTrim(true);
+			for (int i = 0; i < mode; i++) {
+				header[i] = header[i] == null ? null : header[i].trim();
+			}
+		}
+
+		if (!hasHeader) {
+			// 首行也是数据: 计入类型, 列名按列号生成(The first row is data too: count it in the types and name the columns by
+			// position)
+			for (int i = 0; i < mode; i++) {
+				if (headerTypes[i] == null) {
+					nullable[i] = true;
+				} else {
+					types[i] = types[i].widen(headerTypes[i]);
+				}
+			}
+			rows++;
+			header = new String[mode];
+			for (int i = 0; i < mode; i++) {
+				header[i] = "c" + i;
+			}
+		}
+
+		return new SniffResult(dialect, lineTerminator(sample, len, quote), quoted, headerIdx, hasHeader, header, types, nullable, rows);
+	}
+
+	private static List<String> readLines(byte[] sample, int len, char quote) throws IOException {
+		List<String> lines = new ArrayList<>();
+		CsvDialect probe = new CsvDialect(',', quote, quote, CsvDialect.NONE, false);
+		CharBuf buf = CharBuf.POOL.get();
+		try (ChannelReader r = new ChannelReader(Channels.newChannel(new ByteArrayInputStream(sample, 0, len)), -1, StandardCharsets.UTF_8)) {
+			r.dialect(probe);
+			CharBuf line = buf;
+			while ((line = r.readLine(line)) != null) {
+				lines.add(new String(line.value, 0, line.count));
+			}
+		} finally {
+			CharBuf.POOL.release(buf);
+		}
+		return lines;
+	}
+
+	/**
+	 * 有双引号则为双引号, 否则字段以单引号开头时为单引号(Double quote if present, else single quote if a field starts with one)
+	 */
+	private static char quote(byte[] sample, int len) {
+		boolean single = false;
+		for (int i = 0; i < len; i++) {
+			byte c = sample[i];
+			if (c == '"') {
+				return '"';
+			}
+			if (c == '\'' && !single) {
+				byte p = i == 0 ? (byte) '\n' : sample[i - 1];
+				single = p == '\n' || p == '\r' || p == ',' || p == '\t' || p == ';' || p == '|';
+			}
+		}
+		return single ? '\'' : '"';
+	}
+
+	private static boolean balanced(byte[] sample, int len, char quote) {
+		boolean inq = false;
+		for (int i = 0; i < len; i++) {
+			if (sample[i] == quote) {
+				inq = !inq;
+			}
+		}
+		return !inq;
+	}
+
+	/**
+	 * 不截断多字节字符的长度(The longest length that does not split a multibyte character)
+	 */
+	private static int utf8Boundary(byte[] sample, int len) {
+		int i = len;
+		// 向前跳过后续字节(Step back over continuation bytes)
+		while (i > 0 && len - i < 3 && (sample[i - 1] & 0xC0) == 0x80) {
+			i--;
+		}
+		if (i == 0) {
+			return len;
+		}
+		int lead = sample[i - 1] & 0xFF;
+		int need = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+		return len - (i - 1) < need ? i - 1 : len;
+	}
+
+	private static int countFields(String l, char delimiter, char quote) {
+		int n = 1;
+		boolean inq = false;
+		for (int i = 0, len = l.length(); i < len; i++) {
+			char c = l.charAt(i);
+			if (c == quote) {
+				inq = !inq;
+			} else if (c == delimiter && !inq) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	private static int mode(int[] counts) {
+		int[] sorted = counts.clone();
+		Arrays.sort(sorted);
+		int best = sorted[0], bestRun = 0;
+		for (int i = 0; i < sorted.length;) {
+			int j = i;
+			while (j < sorted.length && sorted[j] == sorted[i]) {
+				j++;
+			}
+			if (j - i > bestRun || (j - i == bestRun && sorted[i] > best)) {
+				bestRun = j - i;
+				best = sorted[i];
+			}
+			i = j;
+		}
+		return best;
+	}
+
+	private static String lineTerminator(byte[] sample, int len, char quote) {
+		boolean inq = false;
+		for (int i = 0; i < len; i++) {
+			byte c = sample[i];
+			if (c == quote) {
+				inq = !inq;
+			} else if (!inq && c == '\n') {
+				return "\n";
+			} else if (!inq && c == '\r') {
+				return i + 1 < len && sample[i + 1] == '\n' ? "\r\n" : "\r";
+			}
+		}
+		return System.lineSeparator();
+	}
+
+}
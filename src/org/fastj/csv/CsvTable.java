@@ -0,0 +1,258 @@
+package org.fastj.csv;
+
+import java.util.Arrays;
+
+/**
+ * 紧凑的字符串表: 每块行的所有字段内容放在一个char[]中, 另有一个int[]保存字段结束位置(Compact string table: all field contents of
+ * a block of rows live in one char[], plus one int[] of field end offsets)
+ *
+ * <p>
+ * 加载只需少量大块分配, 而不是每个字段一个String(Loading costs a handful of large allocations instead of one String per
+ * field). String在访问时创建, 可选缓存(Strings are created on access, optionally cached). 缺失的字段(行的字段数不足)为null(Missing
+ * fields, on short rows, are null).
+ *
+ * <p>
+ * 只读访问线程安全; 开启缓存后并发访问可能重复创建同一String(Read access is thread safe; with the cache on, concurrent readers
+ * may create the same String twice).
+ */
+public final class CsvTable {
+
+	private final String[] header;
+	private final int cols;
+	/** 每个读线程的第一行(First row of each reader), 长度为读线程数+1(readers + 1 entries) */
+	private final int[] readerStart;
+	private final int psize;
+	/** 所有块, 按读线程、缓冲区、块顺序(All chunks, in reader, buffer then chunk order) */
+	private final Chunk[] chunks;
+	/** 每个处理线程的第一块(First chunk of each parse task) */
+	private final int[] taskChunk;
+	private final int cshift;
+	private final int cmask;
+	private volatile boolean cache;
+
+	/**
+	 * @param chunks
+	 *            每个处理线程的块, 按读线程、缓冲区顺序(Chunks of each parse task, in reader then buffer order)
+	 */
+	CsvTable(String[] header, int[] readerStart, int psize, Chunk[][] chunks, int chunkRows) {
+		this.header = header;
+		this.cols = header.length;
+		this.readerStart = readerStart;
+		this.psize = psize;
+		this.taskChunk = new int[chunks.length];
+		int n = 0;
+		for (int t = 0; t < chunks.length; t++) {
+			taskChunk[t] = n;
+			n += chunks[t].length;
+		}
+		this.chunks = new Chunk[n];
+		for (int t = 0; t < chunks.length; t++) {
+			System.arraycopy(chunks[t], 0, this.chunks, taskChunk[t], chunks[t].length);
+		}
+		this.cshift = Integer.numberOfTrailingZeros(chunkRows);
+		this.cmask = chunkRows - 1;
+	}
+
+	/**
+	 * 每块行数, 2的幂, 使每块的位置表不超过约4MB(Rows per chunk, a power of 2 keeping the offsets of a chunk around 4MB at most)
+	 */
+	static int chunkRows(int cols) {
+		return Integer.highestOneBit(Math.max(64, Math.min(4096, (1 << 20) / Math.max(1, cols))));
+	}
+
+	/**
+	 * 开启或关闭String缓存, 开启后同一字段只创建一次String(Turn the String cache on or off, with it on a field becomes a String
+	 * once)
+	 */
+	public CsvTable cacheStrings(boolean on) {
+		this.cache = on;
+		return this;
+	}
+
+	public String[] getHeader() {
+		return header;
+	}
+
+	/**
+	 * 行数(Number of rows)
+	 */
+	public int size() {
+		return readerStart[readerStart.length - 1];
+	}
+
+	public int columns() {
+		return cols;
+	}
+
+	public boolean isMissing(int row, int col) {
+		long at = locate(row, col);
+		return chunk(at).ends[(int) at] < 0;
+	}
+
+	/**
+	 * 字段值, 缺失为null(Field value, null when missing)
+	 */
+	public String getString(int row, int col) {
+		long at = locate(row, col);
+		Chunk c = chunk(at);
+		int i = (int) at;
+		if (c.ends[i] < 0) {
+			return null;
+		}
+		if (!cache) {
+			return c.string(i);
+		}
+		String[] sc = c.cache;
+		if (sc == null) {
+			c.cache = sc = new String[c.ends.length];
+		}
+		String s = sc[i];
+		if (s == null) {
+			sc[i] = s = c.string(i);
+		}
+		return s;
+	}
+
+	/**
+	 * 字段视图, 缺失为null(Field view, null when missing)
+	 */
+	public FieldView get(int row, int col) {
+		long at = locate(row, col);
+		Chunk c = chunk(at);
+		int i = (int) at;
+		return c.ends[i] < 0 ? null : new FieldView(c.chars, c.start(i), c.ends[i] - c.start(i));
+	}
+
+	/**
+	 * 把字段放入可重复使用的视图, 不创建对象(Point a reusable view at the field, no allocation)
+	 *
+	 * @return 字段缺失时为false(false when the field is missing)
+	 */
+	public boolean get(int row, int col, FieldView into) {
+		long at = locate(row, col);
+		Chunk c = chunk(at);
+		int i = (int) at;
+		if (c.ends[i] < 0) {
+			return false;
+		}
+		int s = c.start(i);
+		into.set(c.chars, s, c.ends[i] - s);
+		return true;
+	}
+
+	/**
+	 * 字段数值, 缺失为0.0(Numeric field value, 0.0 when missing)
+	 *
+	 * @throws NumberFormatException
+	 *             不是数值(Not a number)
+	 */
+	public double getDouble(int row, int col) {
+		long at = locate(row, col);
+		Chunk c = chunk(at);
+		int i = (int) at;
+		return c.ends[i] < 0 ? 0.0 : Util.parseDouble(c.chars, c.start(i), c.ends[i], CsvDialect.NONE);
+	}
+
+	public String[] row(int row) {
+		String[] r = new String[cols];
+		for (int c = 0; c < cols; c++) {
+			r[c] = getString(row, c);
+		}
+		return r;
+	}
+
+	public String[] column(int col) {
+		String[] v = new String[size()];
+		for (int r = 0; r < v.length; r++) {
+			v[r] = getString(r, col);
+		}
+		return v;
+	}
+
+	/**
+	 * 一列的数值(One column as doubles)
+	 *
+	 * @throws NumberFormatException
+	 *             不是数值(Not a number)
+	 */
+	public double[] doubles(int col) {
+		double[] v = new double[size()];
+		for (int r = 0; r < v.length; r++) {
+			v[r] = getDouble(r, col);
+		}
+		return v;
+	}
+
+	/**
+	 * 转为String[][], 与CSV.readCsv的结果相同(As String[][], same as CSV.readCsv)
+	 */
+	public String[][] toArray() {
+		String[][] data = new String[size()][];
+		for (int r = 0; r < data.length; r++) {
+			data[r] = row(r);
+		}
+		return data;
+	}
+
+	/**
+	 * 行号到块内位置: 高32位为块号, 低32位为块内字段下标(Row to chunk position: chunk in the high 32 bits, field index in
+	 * the low 32 bits)
+	 */
+	private long locate(int row, int col) {
+		if (row < 0 || row >= size() || col < 0 || col >= cols) {
+			throw new IndexOutOfBoundsException("row " + row + ", col " + col);
+		}
+		int reader = 0;
+		if (readerStart.length > 2) {
+			reader = Arrays.binarySearch(readerStart, row);
+			// 空读线程的起始行重复, 取最后一个(Empty readers repeat a start row, take the last)
+			reader = reader < 0 ? -reader - 2 : reader;
+			while (reader + 1 < readerStart.length - 1 && readerStart[reader + 1] == row) {
+				reader++;
+			}
+		}
+		int local = row - readerStart[reader];
+		int task = reader * psize + local % psize;
+		int trow = local / psize;
+		int chunk = taskChunk[task] + (trow >>> cshift);
+		int field = (trow & cmask) * cols + col;
+		return ((long) chunk << 32) | field;
+	}
+
+	private Chunk chunk(long at) {
+		return chunks[(int) (at >>> 32)];
+	}
+
+	/**
+	 * 一块行: 字段内容连续存放, ends为每个字段的结束位置, 缺失的字段取反(One block of rows: field contents back to back, ends holds
+	 * the end offset of every field, inverted for missing fields)
+	 */
+	static final class Chunk {
+		char[] chars;
+		int clen;
+		final int[] ends;
+		final int cols;
+		int rows;
+		String[] cache;
+
+		Chunk(int rows, int cols, int chars) {
+			this.ends = new int[rows * cols];
+			this.cols = cols;
+			this.chars = new char[chars];
+		}
+
+		int start(int i) {
+			if (i == 0) {
+				return 0;
+			}
+			int e = ends[i - 1];
+			return e < 0 ? ~e : e;
+		}
+
+		String string(int i) {
+			int s = start(i);
+			return new String(chars, s, ends[i] - s);
+		}
+	}
+
+}
@@ -0,0 +1,323 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.createIdxMap;
+import static org.fastj.csv.Util.createVidx;
+import static org.fastj.csv.Util.parseCSVLine;
+import static org.fastj.csv.Util.parseSimple;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 增量读取持续追加的CSV文件(Incrementally read a CSV file that keeps growing)
+ *
+ * <p>
+ * 每次poll只读取上次提交位置之后新增的完整行, 末尾不完整的行留到下次(Each poll reads only the complete rows appended after the last
+ * committed offset, a trailing partial row waits for the next poll). 提交位置总在行边界上, 所以引号状态总是关闭的, 只需保存位置(The
+ * committed offset is always a record boundary, so the quote state there is always closed and the offset is the whole
+ * state).
+ *
+ * <p>
+ * 文件变小(截断)、文件标识变化(轮转), 或提交位置之前的内容变化时从头重新读取(A shrinking file, a changed file key or changed
+ * bytes before the committed offset restart from the beginning). 后者用列头各行和提交位置前4KB的指纹检查, 可发现截断后又写到超过原位置的文件
+ * (The last is checked with a fingerprint of the header lines and the 4KB before the offset, which catches a file truncated
+ * and rewritten past the old offset).
+ */
+public final class CsvTailReader implements Closeable {
+
+	/** 指纹包含的提交位置之前的字节数(Bytes before the committed offset covered by the fingerprint) */
+	static final int WINDOW = 4096;
+
+	private final String file;
+	private final Path path;
+	private final String[] cols;
+	private final int headerLine;
+	private final CsvDialect dialect;
+
+	private String[] header;
+	private int olen;
+	private int[] idxmap;
+	private long dataStart = -1;
+	private long offset;
+	private long fingerprint;
+	private boolean marked;
+	private Object fileKey;
+	private volatile WatchService watcher;
+
+	/**
+	 * @param file
+	 *            仅支持本地文件(Local file only)
+	 * @param cols
+	 *            需要读取的列头(Columns to read)
+	 * @param headerLine
+	 *            列头所在行数：从0开始(Line-number of table heads: starting from 0)
+	 * @param dialect
+	 *            分隔符、引号、注释等(Delimiter, quote, comment...)
+	 */
+	public CsvTailReader(String file, String[] cols, int headerLine, CsvDialect dialect) {
+		this(file, cols, headerLine, dialect, 0);
+	}
+
+	/**
+	 * @param offset
+	 *            上次保存的提交位置, 用于重启后继续读取(Committed offset saved earlier, to resume after a restart)
+	 */
+	public CsvTailReader(String file, String[] cols, int headerLine, CsvDialect dialect, long offset) {
+		this.file = file;
+		this.path = new File(file).toPath();
+		this.cols = cols;
+		this.headerLine = headerLine;
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		this.offset = offset;
+	}
+
+	/**
+	 * @param offset
+	 *            上次保存的提交位置(Committed offset saved earlier)
+	 * @param fingerprint
+	 *            与offset一起保存的指纹, 重启期间文件被重写时从头读取(Fingerprint saved with the offset, a file rewritten
+	 *            meanwhile is read from the beginning)
+	 * @see #getFingerprint()
+	 */
+	public CsvTailReader(String file, String[] cols, int headerLine, CsvDialect dialect, long offset, long fingerprint) {
+		this(file, cols, headerLine, dialect, offset);
+		this.fingerprint = fingerprint;
+		this.marked = true;
+	}
+
+	/**
+	 * 读取新增的完整行(Read the complete rows appended since the last poll)
+	 *
+	 * @return String[][], 无新数据时长度为0(Empty when nothing new)
+	 */
+	public synchronized String[][] poll() throws IOException {
+		if (!Files.exists(path)) {
+			return new String[0][];
+		}
+
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		Object key = attrs.fileKey();
+		long size = attrs.size();
+		if (size < offset || (fileKey != null && key != null && !key.equals(fileKey))) {
+			// 截断或轮转(Truncated or rotated)
+			restart();
+		}
+		fileKey = key;
+
+		if (dataStart < 0 && !readHeader()) {
+			return new String[0][];
+		}
+		if (offset < dataStart) {
+			offset = dataStart;
+		}
+		if (marked && fingerprint(offset) != fingerprint) {
+			// 截断后又写到超过提交位置, 或原地重写(Truncated and rewritten past the committed offset, or rewritten in place)
+			restart();
+			if (!readHeader()) {
+				return new String[0][];
+			}
+			offset = dataStart;
+		}
+		if (!marked) {
+			fingerprint = fingerprint(offset);
+			marked = true;
+		}
+		if (size == offset) {
+			return new String[0][];
+		}
+
+		List<String[]> rows = new ArrayList<>();
+		CharBuf buf = CharBuf.POOL.get();
+		CharBuf field = CharBuf.POOL.get();
+		try (ChannelReader r = new ChannelReader(file, offset, Long.MAX_VALUE, -1)) {
+			r.dialect(dialect).tail(true);
+			CharBuf line = buf;
+			while ((line = r.readLine(line)) != null) {
+				rows.add(parseCSVLine(line, field, olen, idxmap, dialect));
+			}
+			offset = r.position();
+		} finally {
+			CharBuf.POOL.release(buf);
+			CharBuf.POOL.release(field);
+		}
+		fingerprint = fingerprint(offset);
+
+		return rows.toArray(new String[rows.size()][]);
+	}
+
+	private void restart() {
+		offset = 0;
+		dataStart = -1;
+		marked = false;
+	}
+
+	/**
+	 * 列头各行与at之前至多WINDOW字节的CRC32C(CRC32C of the header lines and of up to WINDOW bytes before at)
+	 */
+	private long fingerprint(long at) throws IOException {
+		try (FileChannel fc = FileChannel.open(path)) {
+			return crc(fc, 0, dataStart) << 32 | crc(fc, Math.max(dataStart, at - WINDOW), at);
+		}
+	}
+
+	private static long crc(FileChannel fc, long from, long to) throws IOException {
+		ByteBuffer bb = ByteBuffer.allocate((int) (to - from));
+		while (bb.hasRemaining()) {
+			if (fc.read(bb, from + bb.position()) < 0) {
+				// 文件已变短, 指纹自然不同(The file got shorter, the fingerprint differs anyway)
+				break;
+			}
+		}
+		bb.flip();
+		CRC32C crc = new CRC32C();
+		crc.update(bb);
+		return crc.getValue();
+	}
+
+	private boolean readHeader() throws IOException {
+		CharBuf hl = CharBuf.POOL.get();
+		try (ChannelReader r = new ChannelReader(file, 0, Long.MAX_VALUE, -1)) {
+			r.dialect(dialect).tail(true);
+			int headline = headerLine;
+			CharBuf line = hl;
+			while (headline-- >= 0) {
+				if ((line = r.readLine(line)) == null) {
+					// 列头尚未写完(Header not written yet)
+					return false;
+				}
+			}
+			String[] h = parseSimple(line, dialect);
+			int[] vidx = createVidx(h, cols);
+			idxmap = createIdxMap(h.length, vidx);
+			olen = vidx.length;
+			header = cols != null ? cols : h;
+			dataStart = r.position();
+			return true;
+		} finally {
+			CharBuf.POOL.release(hl);
+		}
+	}
+
+	/**
+	 * 监听文件变化, 有新行时回调(Watch the file and call back with new rows)
+	 *
+	 * <p>
+	 * 读取失败或callback抛出异常时停止监听, 并把异常交给onError(A failed read or an exception from callback stops watching and
+	 * is handed to onError).
+	 *
+	 * @param callback
+	 *            在监听线程中调用(Called from the watch thread)
+	 * @param onError
+	 *            监听因错误停止时在监听线程中调用一次(Called once from the watch thread when watching stops on an error)
+	 * @param pollMillis
+	 *            无事件时的兜底轮询间隔(Fallback poll interval when no events arrive)
+	 */
+	public synchronized void watch(Consumer<String[][]> callback, Consumer<Throwable> onError, long pollMillis) throws IOException {
+		if (callback == null || onError == null) {
+			throw new NullPointerException("Callback and error handler must not null");
+		}
+		if (watcher != null) {
+			throw new IllegalStateException("Already watching");
+		}
+		Path dir = path.toAbsolutePath().getParent();
+		final WatchService ws = FileSystems.getDefault().newWatchService();
+		dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		watcher = ws;
+
+		Util.executor.execute(() -> {
+			Path name = path.getFileName();
+			try {
+				deliver(callback);
+				while (watcher == ws) {
+					WatchKey wk = ws.poll(pollMillis, TimeUnit.MILLISECONDS);
+					if (wk != null) {
+						boolean hit = false;
+						for (WatchEvent<?> e : wk.pollEvents()) {
+							hit |= e.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(e.context());
+						}
+						wk.reset();
+						if (!hit) {
+							continue;
+						}
+					}
+					deliver(callback);
+				}
+			} catch (ClosedWatchServiceException | InterruptedException e) {
+				// closed
+			} catch (Throwable e) {
+				stop(ws);
+				onError.accept(e);
+			}
+		});
+	}
+
+	private void deliver(Consumer<String[][]> callback) throws IOException {
+		String[][] rows = poll();
+		if (rows.length > 0) {
+			callback.accept(rows);
+		}
+	}
+
+	/**
+	 * 提交位置, 可保存下来用于重启后继续(Committed offset, persist it to resume later)
+	 */
+	public synchronized long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * 提交位置之前内容的指纹, 与提交位置一起保存(Fingerprint of the bytes before the committed offset, persist it with the
+	 * offset)
+	 */
+	public synchronized long getFingerprint() {
+		return fingerprint;
+	}
+
+	public synchronized String[] getHeader() {
+		return header;
+	}
+
+	/**
+	 * 停止监听(Stop watching)
+	 */
+	@Override
+	public void close() throws IOException {
+		WatchService ws = watcher;
+		watcher = null;
+		if (ws != null) {
+			ws.close();
+		}
+	}
+
+	/**
+	 * 出错后停止监听, 之后可再次watch(Stop watching after an error, watch may be called again afterwards)
+	 */
+	private synchronized void stop(WatchService ws) {
+		if (watcher == ws) {
+			watcher = null;
+		}
+		try {
+			ws.close();
+		} catch (IOException e) {
+			// 已经在处理更早的错误(Already handling an earlier error)
+		}
+	}
+
+}
@@ -0,0 +1,357 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.createIdxMap;
+import static org.fastj.csv.Util.createVidx;
+import static org.fastj.csv.Util.estimateRows;
+import static org.fastj.csv.Util.parseCSVLine;
+import static org.fastj.csv.Util.parseCSVMatrix;
+import static org.fastj.csv.Util.parseSimple;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多文件读取, 所有文件共用一个线程预算(Reads many files of one schema under a single thread budget)
+ *
+ * <p>
+ * 大文件按块切分, 小文件合并成一个任务, 固定数量的工作线程按顺序领取任务(Large files are split into blocks, small files are batched
+ * into one unit, a fixed number of workers pull units in order).
+ */
+final class DatasetReader {
+
+	/** 最小切分大小(Smallest block size) */
+	static final long MIN_SPLIT = 4L << 20;
+
+	final List<String> files;
+	final int threads;
+	final int headerLine;
+	final CsvDialect dialect;
+	final List<Unit> units = new ArrayList<>();
+	String[] header;
+	String[] fileHeader;
+	/** 提供参考列头的文件, 第一个非空文件(File the reference header comes from, the first non-empty one) */
+	String refFile;
+	int olen;
+	int[] idxmap;
+	final ReadJob job = new ReadJob();
+
+	DatasetReader(List<String> files, String[] rcols, int threads, int headerLine, CsvDialect dialect) throws IOException {
+		if (files.isEmpty()) {
+			throw new IllegalArgumentException("No files");
+		}
+		this.files = files;
+		this.threads = threads;
+		this.headerLine = headerLine;
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+
+		long[] sizes = new long[files.size()];
+		long total = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = Files.size(new File(files.get(i)).toPath());
+			total += sizes[i];
+		}
+		long split = Math.max(MIN_SPLIT, total / (threads * 4L) + 1);
+
+		Unit batch = null;
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i] == 0) {
+				continue;
+			}
+			if (sizes[i] < split) {
+				if (batch == null || batch.bytes >= split) {
+					batch = new Unit();
+					units.add(batch);
+				}
+				batch.add(i, 0, sizes[i]);
+				continue;
+			}
+			batch = null;
+			for (long start = 0; start < sizes[i]; start += split) {
+				Unit u = new Unit();
+				u.add(i, start, split);
+				units.add(u);
+			}
+		}
+
+		// 空文件没有列头, 也不参与读取(Empty files have no header and are not read)
+		for (int i = 0; i < sizes.length && refFile == null; i++) {
+			if (sizes[i] > 0) {
+				refFile = files.get(i);
+			}
+		}
+		if (refFile == null) {
+			throw new IOException("All " + files.size() + " files are empty, no header to read (first: " + files.get(0) + ")");
+		}
+		try (ChannelReader r = new ChannelReader(refFile, 0, Long.MAX_VALUE, -1)) {
+			r.dialect(this.dialect);
+			fileHeader = readHeader(r, refFile);
+		}
+		int[] vidx = createVidx(fileHeader, rcols);
+		idxmap = createIdxMap(fileHeader.length, vidx);
+		olen = vidx.length;
+		header = rcols != null ? rcols : fileHeader;
+	}
+
+	/**
+	 * 列出目录下匹配glob的文件, 按文件名排序(List the files of a directory matching a glob, sorted by name)
+	 */
+	static List<String> glob(String dir, String glob) throws IOException {
+		List<String> files = new ArrayList<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(Paths.get(dir), glob)) {
+			for (Path p : ds) {
+				if (Files.isRegularFile(p)) {
+					files.add(p.toString());
+				}
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	double[][] readMatrix() throws IOException {
+		run(true);
+		return matrix();
+	}
+
+	String[][] readCsv(boolean withHeader) throws IOException {
+		run(false);
+		return table(withHeader);
+	}
+
+	double[][][] readMatrixPerFile() throws IOException {
+		run(true);
+		return matrixPerFile();
+	}
+
+	String[][][] readCsvPerFile() throws IOException {
+		run(false);
+		return tablePerFile();
+	}
+
+	/**
+	 * 异步读取, 最后一个工作线程结束时收集结果(Read asynchronously, the last worker to finish collects the result)
+	 *
+	 * <p>
+	 * 取消Future会停止读取(Cancelling the future stops the load).
+	 */
+	<V> CompletableFuture<V> runAsync(boolean matrix, Callable<V> collect) {
+		CompletableFuture<V> future = new CompletableFuture<>();
+		future.whenComplete((v, e) -> {
+			if (e != null) {
+				job.cancel();
+			}
+		});
+		start(matrix, () -> {
+			try {
+				if (job.stopped()) {
+					future.completeExceptionally(job.failure());
+				} else {
+					future.complete(collect.call());
+				}
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	double[][] matrix() {
+		int total = 0;
+		for (Unit u : units) {
+			total += u.rows.size();
+		}
+		double[][] data = new double[total][];
+		int pc = 0;
+		for (Unit u : units) {
+			for (int i = 0, n = u.rows.size(); i < n; i++) {
+				data[pc++] = (double[]) u.rows.get(i);
+			}
+		}
+		return data;
+	}
+
+	String[][] table(boolean withHeader) {
+		int total = withHeader ? 1 : 0;
+		for (Unit u : units) {
+			total += u.rows.size();
+		}
+		String[][] data = new String[total][];
+		int pc = 0;
+		if (withHeader) {
+			data[pc++] = header;
+		}
+		for (Unit u : units) {
+			for (int i = 0, n = u.rows.size(); i < n; i++) {
+				data[pc++] = (String[]) u.rows.get(i);
+			}
+		}
+		return data;
+	}
+
+	double[][][] matrixPerFile() {
+		List<List<double[]>> perFile = perFile();
+		double[][][] data = new double[files.size()][][];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = perFile.get(i).toArray(new double[0][]);
+		}
+		return data;
+	}
+
+	String[][][] tablePerFile() {
+		List<List<String[]>> perFile = perFile();
+		String[][][] data = new String[files.size()][][];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = perFile.get(i).toArray(new String[0][]);
+		}
+		return data;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> List<List<T>> perFile() {
+		List<List<T>> perFile = new ArrayList<>(files.size());
+		for (int i = 0; i < files.size(); i++) {
+			perFile.add(new ArrayList<>());
+		}
+		for (Unit u : units) {
+			int from = 0;
+			for (int k = 0; k < u.files.size(); k++) {
+				int to = u.ends.get(k);
+				List<T> rows = perFile.get(u.files.get(k));
+				for (int i = from; i < to; i++) {
+					rows.add((T) u.rows.get(i));
+				}
+				from = to;
+			}
+		}
+		return perFile;
+	}
+
+	private void run(boolean matrix) throws IOException {
+		CountDownLatch cdl = start(matrix, null);
+		try {
+			cdl.await();
+		} catch (InterruptedException e) {
+			job.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Read interrupted");
+		}
+		job.check();
+	}
+
+	/**
+	 * 启动工作线程后立即返回(Start the workers and return at once)
+	 *
+	 * @param onFinish
+	 *            最后一个工作线程结束时执行, 可为null(Run by the last worker to finish, may be null)
+	 */
+	private CountDownLatch start(boolean matrix, Runnable onFinish) {
+		final AtomicInteger next = new AtomicInteger();
+		int workers = Math.max(1, Math.min(threads, units.size()));
+		final CountDownLatch cdl = new CountDownLatch(workers);
+		final AtomicInteger running = new AtomicInteger(workers);
+
+		for (int w = 0; w < workers; w++) {
+			Util.executor.execute(() -> {
+				CharBuf buf = CharBuf.POOL.get();
+				CharBuf field = CharBuf.POOL.get();
+				try {
+					int i;
+					while (!job.stopped() && (i = next.getAndIncrement()) < units.size()) {
+						read(units.get(i), matrix, buf, field);
+					}
+				} catch (Throwable e) {
+					job.fail(e);
+				} finally {
+					CharBuf.POOL.release(buf);
+					CharBuf.POOL.release(field);
+					cdl.countDown();
+					if (running.decrementAndGet() == 0 && onFinish != null) {
+						onFinish.run();
+					}
+				}
+			});
+		}
+		return cdl;
+	}
+
+	private void read(Unit u, boolean matrix, CharBuf buf, CharBuf field) throws IOException {
+		for (int k = 0; k < u.files.size(); k++) {
+			int fi = u.files.get(k);
+			long start = u.starts.get(k);
+			try (ChannelReader r = new ChannelReader(files.get(fi), start, u.sizes.get(k), start != 0 ? 0 : -1)) {
+				r.dialect(dialect);
+				if (k == 0) {
+					u.rows = new RowChunks<>(new Object[RowChunks.firstSize(u.estimate(estimateRows(r)))]);
+				}
+				if (start == 0) {
+					String[] h = readHeader(r, files.get(fi));
+					if (!Arrays.equals(h, fileHeader)) {
+						throw new IOException("Schema of " + files.get(fi) + " differs from " + refFile);
+					}
+				}
+				CharBuf line = buf;
+				while (!job.stopped() && (line = r.readLine(line)) != null) {
+					u.rows.add(matrix ? parseCSVMatrix(line, olen, idxmap, dialect) : parseCSVLine(line, field, olen, idxmap, dialect));
+				}
+			}
+			u.ends.add(u.rows.size());
+		}
+	}
+
+	private String[] readHeader(ChannelReader r, String file) throws IOException {
+		CharBuf hl = CharBuf.POOL.get();
+		try {
+			int headline = headerLine;
+			CharBuf line = hl;
+			while (headline-- >= 0 && line != null) {
+				line = r.readLine(line);
+			}
+			if (line == null && headerLine >= 0) {
+				throw new IOException("No header line " + headerLine + " in " + file);
+			}
+			return parseSimple(line, dialect); // throw NPE if headline < 0
+		} finally {
+			CharBuf.POOL.release(hl);
+		}
+	}
+
+	/**
+	 * 一个调度单元: 一个大文件的一块, 或一组小文件(One scheduling unit: a block of a large file, or a batch of small files)
+	 */
+	static class Unit {
+		final List<Integer> files = new ArrayList<>(1);
+		final List<Long> starts = new ArrayList<>(1);
+		final List<Long> sizes = new ArrayList<>(1);
+		final List<Integer> ends = new ArrayList<>(1);
+		RowChunks<Object> rows;
+		long bytes;
+
+		void add(int file, long start, long size) {
+			files.add(file);
+			starts.add(start);
+			sizes.add(size);
+			bytes += size;
+		}
+
+		/**
+		 * 按第一段的行数估计整个单元(Scale the row estimate of the first part to the whole unit)
+		 */
+		int estimate(int firstRows) {
+			return firstRows < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE - 8, firstRows * bytes / sizes.get(0));
+		}
+	}
+
+}
@@ -12,17 +12,35 @@ import java.io.Reader;
  */
 final class FastReader implements Closeable {
 
-	private static final int SIZE = 8192;
+	private static final int SIZE = 64 * 1024;
 
 	private char[] buf = new char[SIZE];
 	private Reader r;
 	private int cnt, nc;
+	private final CsvDialect dialect;
 
 	public FastReader(Reader reader) {
+		this(reader, CsvDialect.DEFAULT);
+	}
+
+	public FastReader(Reader reader, CsvDialect dialect) {
 		this.r = reader;
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
 	}
 
 	CharBuf readLine(CharBuf cbuf) throws IOException {
+		final char comment = dialect.comment;
+		CharBuf line;
+		while ((line = readLine0(cbuf)) != null) {
+			if (comment == CsvDialect.NONE || line.count == 0 || line.value[0] != comment) {
+				return line;
+			}
+			cbuf = line;
+		}
+		return null;
+	}
+
+	private CharBuf readLine0(CharBuf cbuf) throws IOException {
 		if (cbuf != null) {
 			cbuf.reset();
 		}
@@ -30,22 +48,27 @@ final class FastReader implements Closeable {
 		CharBuf chs = cbuf;
 		int startChar;
 
-		synchronized (this) {
-			byte bit = 0x00;
-			for (;;) {
-				if (nc >= cnt)
-					fill();
+		final boolean fastQuote = dialect.isDefaultQuote();
+		final char quote = dialect.quote;
+		final char esc = dialect.escape;
+		boolean escaped = false;
 
-				if (nc >= cnt) {
-					if (chs != null && chs.length() > 0)
-						return chs;
-					else
-						return null;
-				}
-				boolean eol = false;
-				char c = 0;
-				int i;
+		byte bit = 0x00;
+		for (;;) {
+			if (nc >= cnt)
+				fill();
 
+			if (nc >= cnt) {
+				if (chs != null && chs.length() > 0)
+					return chs;
+				else
+					return null;
+			}
+			boolean eol = false;
+			char c = 0;
+			int i;
+
+			if (fastQuote) {
 				for (i = nc; i < cnt; i++) {
 					c = buf[i];
 					if (c > '"' || c < 0) {
@@ -62,33 +85,55 @@ final class FastReader implements Closeable {
 						}
 					}
 				}
-
-				startChar = nc;
-				nc = i;
-
-				if (eol) {
-					if (chs == null) {
-						chs = new CharBuf(i - startChar);
-						chs.append(buf, startChar, i - startChar);
-					} else {
-						chs.append(buf, startChar, i - startChar);
+			} else {
+				for (i = nc; i < cnt; i++) {
+					c = buf[i];
+					if (escaped) {
+						escaped = false;
+						continue;
 					}
-					nc++;
+					if (c == quote) {
+						bit ^= 0x01;
+						continue;
+					}
+					if (c == esc && bit != 0) {
+						escaped = true;
+						continue;
+					}
+					if ((c == '\n') || (c == '\r')) {
+						if (bit == 0) {
+							eol = true;
+							break;
+						}
+					}
+				}
+			}
 
-					if (nc >= cnt)
-						fill();
+			startChar = nc;
+			nc = i;
 
-					if (c == '\r' && (buf[nc] == '\n')) {
-						nc++;
-					}
+			if (eol) {
+				if (chs == null) {
+					chs = new CharBuf(i - startChar);
+					chs.append(buf, startChar, i - startChar);
+				} else {
+					chs.append(buf, startChar, i - startChar);
+				}
+				nc++;
 
-					return chs;
+				if (nc >= cnt)
+					fill();
+
+				if (c == '\r' && (buf[nc] == '\n')) {
+					nc++;
 				}
 
-				if (chs == null)
-					chs = new CharBuf(256);
-				chs.append(buf, startChar, i - startChar);
+				return chs;
 			}
+
+			if (chs == null)
+				chs = new CharBuf(256);
+			chs.append(buf, startChar, i - startChar);
 		}
 	}
 
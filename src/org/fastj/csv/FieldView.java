@@ -0,0 +1,133 @@
+package org.fastj.csv;
+
+/**
+ * 字段视图: 指向共享字符缓冲区的一段, 需要时才创建String(Field view: a slice of a shared char buffer, a String is created only
+ * when asked for)
+ *
+ * <p>
+ * equals/hashCode/compareTo直接在字符上计算, hashCode与String相同(equals, hashCode and compareTo work on the chars
+ * directly, hashCode matches String). 可重复使用的视图内容会变化, 不要作为Map的键(A reused view changes content, do not keep
+ * it as a map key).
+ */
+public final class FieldView implements CharSequence, Comparable<CharSequence> {
+
+	private char[] value;
+	private int offset;
+	private int count;
+	/** 需要去引号或转义时的私有缓冲区(Private buffer for fields that need unquoting) */
+	private char[] scratch;
+
+	/**
+	 * 空视图, 用于重复读取(Empty view, to be reused)
+	 */
+	public FieldView() {
+		this.value = new char[0];
+	}
+
+	FieldView(char[] value, int offset, int count) {
+		this.value = value;
+		this.offset = offset;
+		this.count = count;
+	}
+
+	FieldView set(char[] value, int offset, int count) {
+		this.value = value;
+		this.offset = offset;
+		this.count = count;
+		return this;
+	}
+
+	/**
+	 * 指向原始字段, 未加引号时不复制(Point at a raw field, no copy unless it is quoted or trimmed)
+	 */
+	FieldView resolve(char[] text, int start, int end, CsvDialect d) {
+		if (start >= end || (!d.trim && text[start] != d.quote)) {
+			return set(text, start, Math.max(0, end - start));
+		}
+		if (scratch == null || scratch.length < end - start) {
+			scratch = new char[Math.max(16, end - start)];
+		}
+		return set(scratch, 0, Util.copyField(text, start, end, scratch, 0, d));
+	}
+
+	@Override
+	public int length() {
+		return count;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + count);
+		}
+		return value[offset + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > count || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + count);
+		}
+		return new FieldView(value, offset + start, end - start);
+	}
+
+	/**
+	 * 内容是否与cs相同, 可与String比较(Same chars as cs? Works against a String)
+	 */
+	public boolean contentEquals(CharSequence cs) {
+		if (cs.length() != count) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			if (value[offset + i] != cs.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		return o instanceof FieldView && contentEquals((FieldView) o);
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int i = offset, end = offset + count; i < end; i++) {
+			h = 31 * h + value[i];
+		}
+		return h;
+	}
+
+	@Override
+	public int compareTo(CharSequence o) {
+		int n = Math.min(count, o.length());
+		for (int i = 0; i < n; i++) {
+			int c = value[offset + i] - o.charAt(i);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return count - o.length();
+	}
+
+	/**
+	 * 数值, 不创建String(Numeric value without creating a String)
+	 *
+	 * @throws NumberFormatException
+	 *             不是数值(Not a number)
+	 */
+	public double toDouble() {
+		return Util.parseDouble(value, offset, offset + count, CsvDialect.NONE);
+	}
+
+	@Override
+	public String toString() {
+		return new String(value, offset, count);
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.fastj.csv;
+
+/**
+ * 基数估计, 4096个寄存器, 标准误差约1.6%(Cardinality estimate with 4096 registers, about 1.6% standard error)
+ */
+final class HyperLogLog {
+
+	static final int P = 12;
+	static final int M = 1 << P;
+	private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+	final byte[] registers = new byte[M];
+
+	void add(long hash) {
+		int idx = (int) (hash >>> (64 - P));
+		int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+		if (rank > registers[idx]) {
+			registers[idx] = (byte) rank;
+		}
+	}
+
+	void merge(HyperLogLog o) {
+		for (int i = 0; i < M; i++) {
+			if (o.registers[i] > registers[i]) {
+				registers[i] = o.registers[i];
+			}
+		}
+	}
+
+	long estimate() {
+		double sum = 0;
+		int zeros = 0;
+		for (byte r : registers) {
+			sum += 1.0 / (1L << r);
+			if (r == 0) {
+				zeros++;
+			}
+		}
+		double e = ALPHA * M * M / sum;
+		if (e <= 2.5 * M && zeros > 0) {
+			// 小基数用线性计数(Linear counting for small cardinalities)
+			e = M * Math.log((double) M / zeros);
+		}
+		return Math.round(e);
+	}
+
+	/**
+	 * 字符片段的64位哈希, 不创建对象(64-bit hash of a char slice, no allocation)
+	 */
+	static long hash(char[] b, int start, int end) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = start; i < end; i++) {
+			h = (h ^ b[i]) * 0x100000001b3L;
+		}
+		// murmur3 fmix64
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
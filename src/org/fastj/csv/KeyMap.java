@@ -0,0 +1,107 @@
+package org.fastj.csv;
+
+import java.util.Arrays;
+
+/**
+ * 开放地址哈希表: 字符片段到槽位号, 只在新键时创建String(Open-addressing map from a char slice to a dense slot number, a String
+ * is created only for new keys)
+ */
+final class KeyMap {
+
+	String[] keys = new String[16];
+	private int[] hashes = new int[16];
+	private int[] table = new int[32];
+	private int mask = 31;
+	int size;
+
+	/**
+	 * @return 槽位号, 从0开始连续分配(Slot number, assigned densely from 0)
+	 */
+	int slot(char[] buf, int start, int end) {
+		int h = hash(buf, start, end);
+		int i = h & mask;
+		for (int s; (s = table[i]) != 0; i = (i + 1) & mask) {
+			if (hashes[s - 1] == h && equals(keys[s - 1], buf, start, end)) {
+				return s - 1;
+			}
+		}
+		return insert(new String(buf, start, end - start), h, i);
+	}
+
+	int slot(String key) {
+		int h = key.hashCode();
+		int i = h & mask;
+		for (int s; (s = table[i]) != 0; i = (i + 1) & mask) {
+			if (hashes[s - 1] == h && keys[s - 1].equals(key)) {
+				return s - 1;
+			}
+		}
+		return insert(key, h, i);
+	}
+
+	/**
+	 * @return 槽位号, 不存在时为-1(Slot number, -1 if absent)
+	 */
+	int find(String key) {
+		int h = key.hashCode();
+		for (int i = h & mask, s; (s = table[i]) != 0; i = (i + 1) & mask) {
+			if (hashes[s - 1] == h && keys[s - 1].equals(key)) {
+				return s - 1;
+			}
+		}
+		return -1;
+	}
+
+	private int insert(String key, int h, int i) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size << 1);
+			hashes = Arrays.copyOf(hashes, size << 1);
+		}
+		keys[size] = key;
+		hashes[size] = h;
+		table[i] = ++size;
+		if (size * 2 > mask) {
+			rehash();
+		}
+		return size - 1;
+	}
+
+	private void rehash() {
+		int[] nt = new int[table.length << 1];
+		int nm = nt.length - 1;
+		for (int s = 0; s < size; s++) {
+			int i = hashes[s] & nm;
+			while (nt[i] != 0) {
+				i = (i + 1) & nm;
+			}
+			nt[i] = s + 1;
+		}
+		table = nt;
+		mask = nm;
+	}
+
+	/**
+	 * 与String.hashCode一致(Same as String.hashCode)
+	 */
+	static int hash(char[] buf, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + buf[i];
+		}
+		return h;
+	}
+
+	private static boolean equals(String key, char[] buf, int start, int end) {
+		int len = end - start;
+		if (key.length() != len) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (key.charAt(i) != buf[start + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
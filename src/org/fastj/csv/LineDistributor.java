@@ -0,0 +1,161 @@
+package org.fastj.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * 一个读线程向多个处理线程分发行(Fans the lines of one reader out to its parse tasks)
+ */
+final class LineDistributor {
+	int index = 0;
+	/** 处理线程数, 不要求是2的幂(Number of parse tasks, not necessarily a power of 2) */
+	final int count;
+	final RingBuffer<CharBuf>[] buffers;
+	CountDownLatch latch;
+	final Object lock = new Object();
+	int failCnt = 0;
+	final ReadJob job;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	LineDistributor(int thread, int bufSize, ReadJob job) {
+		this.job = job;
+		List<RingBuffer<CharBuf>> list = new ArrayList<>();
+		for (int i = 0; i < thread; i++) {
+			list.add(new RingBuffer<>(bufSize));
+		}
+		buffers = list.toArray(new RingBuffer[0]);
+		this.count = thread;
+	}
+
+	int size() {
+		return buffers.length;
+	}
+
+	public void put(CharBuf res) {
+		while (true) {
+			int idx = next(index);
+			int len = buffers.length * 2;
+			boolean ok = false;
+			for (; !(ok = buffers[idx].add(res));) {
+				idx = next(idx);
+				failCnt++;
+				if (len-- == 0) {
+					break;
+				}
+			}
+
+			if (ok) {
+				index = next(idx);
+				break;
+			} else if (job.stopped()) {
+				return;
+			} else {
+				synchronized (lock) {
+					try {
+						lock.wait(1);
+					} catch (InterruptedException e) {
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 严格轮转: 第n行进入第(n % count)个缓冲区, 各任务的结果交错即为原顺序(Strict round robin: line n goes to buffer n % count, so
+	 * interleaving the task results restores the line order)
+	 */
+	public void putInOrder(CharBuf res) {
+		RingBuffer<CharBuf> rb = buffers[index];
+		while (!rb.add(res)) {
+			if (job.stopped()) {
+				return;
+			}
+			failCnt++;
+			synchronized (lock) {
+				try {
+					lock.wait(1);
+				} catch (InterruptedException e) {
+				}
+			}
+		}
+		index = next(index);
+	}
+
+	private int next(int i) {
+		return ++i == count ? 0 : i;
+	}
+
+	/**
+	 * 按轮转顺序交错各任务的结果(Interleave the task results in round robin order)
+	 *
+	 * @return 写入的行数(Number of rows written)
+	 */
+	static <R> int interleave(List<? extends RowTask<R>> tasks, int from, int count, R[] out, int off) {
+		if (count == 1) {
+			return tasks.get(from).rows.copyTo(out, off);
+		}
+		int total = 0;
+		for (int k = 0; k < count; k++) {
+			total += tasks.get(from + k).rows.size();
+		}
+		for (int i = 0, k = 0, at = 0; i < total; i++) {
+			out[off + i] = tasks.get(from + k).rows.get(at);
+			if (++k == count) {
+				k = 0;
+				at++;
+			}
+		}
+		return total;
+	}
+
+	public void finish() {
+		for (RingBuffer<CharBuf> rb : buffers) {
+			rb.finish();
+		}
+	}
+
+	/**
+	 * 每个缓冲区启动一个任务; 执行器拒绝时未启动的任务视为已结束(Start one task per ring buffer; when the executor rejects one,
+	 * the tasks not started count as finished)
+	 *
+	 * @param pool
+	 *            运行任务的执行器, 与读线程同组(Executor for the tasks, in the reader's group)
+	 */
+	public void start(LineTask[] tasks, Executor pool) {
+		latch = new CountDownLatch(tasks.length);
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i].bind(buffers[i], latch, lock, job);
+			try {
+				pool.execute(tasks[i]);
+			} catch (Throwable e) {
+				for (int k = i; k < tasks.length; k++) {
+					latch.countDown();
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * 等待所有任务结束; 被中断时取消读取, 仍等任务退出(Wait for all tasks; an interrupt cancels the load but still waits for the
+	 * tasks to exit)
+	 */
+	public void await() {
+		boolean interrupted = false;
+		for (;;) {
+			try {
+				latch.await();
+				break;
+			} catch (InterruptedException e) {
+				job.cancel();
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
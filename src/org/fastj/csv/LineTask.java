@@ -0,0 +1,74 @@
+package org.fastj.csv;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 处理线程: 从环形缓冲区取行并处理(Parse task: takes lines from its ring buffer and handles them)
+ */
+abstract class LineTask implements Runnable {
+
+	/** 一次从缓冲区取出的最多行数(Most lines taken from the buffer at once) */
+	static final int BATCH = 16;
+
+	RingBuffer<CharBuf> buffer;
+	CountDownLatch latch;
+	Object notifier;
+	ReadJob job;
+
+	void bind(RingBuffer<CharBuf> buffer, CountDownLatch latch, Object notifier, ReadJob job) {
+		this.buffer = buffer;
+		this.latch = latch;
+		this.notifier = notifier;
+		this.job = job;
+	}
+
+	public void run() {
+		CharBuf[] batch = new CharBuf[BATCH];
+		try {
+			for (;;) {
+				// 有积压时批量取出, 为空时等待一行(Take a batch when lines are queued, wait for one when empty)
+				int n = buffer.drainTo(batch, BATCH);
+				if (n == 0) {
+					if ((batch[0] = buffer.get()) == null) {
+						break;
+					}
+					n = 1;
+				}
+				synchronized (notifier) {
+					notifier.notifyAll();
+				}
+				for (int i = 0; i < n; i++) {
+					if (job.stopped()) {
+						return;
+					}
+					handle(batch[i]);
+					CharBuf.POOL.release(batch[i]);
+					batch[i] = null;
+				}
+			}
+		} catch (Throwable e) {
+			job.fail(e);
+		} finally {
+			done();
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * 处理一行, 返回后行缓冲被回收(Handle one line, the buffer is recycled afterwards)
+	 */
+	abstract void handle(CharBuf line);
+
+	/**
+	 * 预计处理的行数, 在启动前调用(Expected number of lines, called before the task starts)
+	 *
+	 * @param rows
+	 *            估计行数, -1为未知(Estimated rows, -1 if unknown)
+	 */
+	void expect(int rows) {
+	}
+
+	void done() {
+	}
+
+}
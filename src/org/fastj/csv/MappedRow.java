@@ -0,0 +1,47 @@
+package org.fastj.csv;
+
+/**
+ * 一行转换后的值, 按ColumnMapping中的列顺序访问(The converted values of one row, indexed in ColumnMapping order)
+ *
+ * <p>
+ * 每个处理线程一个, 逐行复用(One per parse task, reused row after row).
+ */
+public final class MappedRow {
+
+	final double[] doubles;
+	final long[] longs;
+	final Object[] objects;
+
+	MappedRow(int cols) {
+		this.doubles = new double[cols];
+		this.longs = new long[cols];
+		this.objects = new Object[cols];
+	}
+
+	public int size() {
+		return doubles.length;
+	}
+
+	/**
+	 * asDouble列的值(Value of an asDouble column)
+	 */
+	public double getDouble(int col) {
+		return doubles[col];
+	}
+
+	/**
+	 * asLong列的值(Value of an asLong column)
+	 */
+	public long getLong(int col) {
+		return longs[col];
+	}
+
+	/**
+	 * as/asString列的值(Value of an as or asString column)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(int col) {
+		return (T) objects[col];
+	}
+
+}
@@ -0,0 +1,81 @@
+package org.fastj.csv;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已缓存行和已解析行的内存预算, 按估计字节计(Memory budget for buffered lines and parsed rows, in estimated bytes)
+ */
+final class MemoryBudget {
+
+	final long limit;
+	private final AtomicLong used = new AtomicLong();
+	private volatile boolean waiting;
+	private volatile boolean closed;
+
+	MemoryBudget(long limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Memory budget must be positive");
+		}
+		this.limit = limit;
+	}
+
+	/**
+	 * 超出预算时返回false; 预算为空时总能成功, 所以单个大行不会卡住(False when over budget; always succeeds on an empty budget so
+	 * one huge row cannot stall)
+	 */
+	boolean tryReserve(long n) {
+		long u;
+		do {
+			u = used.get();
+			if (u > 0 && u + n > limit) {
+				return false;
+			}
+		} while (!used.compareAndSet(u, u + n));
+		return true;
+	}
+
+	/**
+	 * 阻塞直到预算足够或关闭(Block until the budget allows it or is closed)
+	 */
+	void reserve(long n) throws InterruptedException {
+		if (tryReserve(n)) {
+			return;
+		}
+		synchronized (this) {
+			waiting = true;
+			while (!closed && !tryReserve(n)) {
+				wait(10);
+			}
+			waiting = false;
+		}
+	}
+
+	void forceReserve(long n) {
+		used.addAndGet(n);
+	}
+
+	void release(long n) {
+		used.addAndGet(-n);
+		if (waiting) {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+	}
+
+	long used() {
+		return used.get();
+	}
+
+	void close() {
+		closed = true;
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+}
@@ -0,0 +1,196 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.fastj.csv.Aggregation.Op;
+
+/**
+ * 读取时分组聚合, 不物化行(Group-by while loading, rows are never materialized)
+ *
+ * <p>
+ * 每个处理线程持有自己的键表和累加器, 结束时合并, 内存只与键数有关(Every parse task keeps its own key map and accumulators, merged at
+ * the end, so memory depends on the number of keys only).
+ */
+final class N2NAggregateReader extends N2NScanReader<N2NAggregateReader.AggTask> {
+
+	final Aggregation agg;
+	final Op[] ops;
+	/** 每个聚合对应的投影列, COUNT为-1(Projected column of each aggregate, -1 for COUNT) */
+	int[] valCol;
+	int keyCol;
+
+	N2NAggregateReader(String file, int rsize, int psizePerReader, int headline, Aggregation agg, CsvDialect dialect) throws IOException {
+		this(openBlocks(file, rsize), psizePerReader, headline, agg, dialect);
+	}
+
+	N2NAggregateReader(ChannelReader[] readers, int psizePerReader, int headline, Aggregation agg, CsvDialect dialect) throws IOException {
+		super(readers, psizePerReader, headline, agg.readColumns(), dialect);
+		if (agg.ops.isEmpty()) {
+			closeReaders();
+			throw new IllegalArgumentException("No aggregates");
+		}
+		this.agg = agg;
+		this.ops = agg.ops.toArray(new Op[agg.ops.size()]);
+
+		String[] rcols = agg.readColumns();
+		List<String> rc = Arrays.asList(rcols);
+		keyCol = agg.key != null ? 0 : -1;
+		valCol = new int[ops.length];
+		for (int j = 0; j < ops.length; j++) {
+			String c = agg.cols.get(j);
+			valCol[j] = c != null ? rc.indexOf(c) : -1;
+		}
+	}
+
+	@Override
+	AggTask newTask() {
+		return new AggTask();
+	}
+
+	AggregateResult get() throws IOException {
+		return collect(scan());
+	}
+
+	CompletableFuture<AggregateResult> getAsync() {
+		return scanAsync(() -> collect(tasks));
+	}
+
+	private AggregateResult collect(List<AggTask> tasks) {
+		// 合并线程本地结果(Merge the task-local results)
+		AggTask total = new AggTask();
+		for (AggTask t : tasks) {
+			total.merge(t);
+		}
+		return total.result();
+	}
+
+	class AggTask extends LineTask {
+
+		final int n = ops.length;
+		final KeyMap keys = new KeyMap();
+		final int[] starts = new int[olen];
+		final int[] ends = new int[olen];
+		final CharBuf field = new CharBuf(64);
+		/** 每个键n个累加值(n accumulators per key) */
+		double[] acc = new double[16 * n];
+		/** 每个键n个非空计数(n non-empty counts per key) */
+		long[] cnt = new long[16 * n];
+
+		@Override
+		void handle(CharBuf line) {
+			scanFields(line, idxmap, olen, starts, ends, dialect);
+			char[] b = line.value;
+
+			int slot;
+			if (keyCol < 0 || starts[keyCol] < 0) {
+				slot = keys.slot("");
+			} else {
+				int s = starts[keyCol], e = ends[keyCol];
+				if (dialect.trim || (s < e && b[s] == dialect.quote)) {
+					slot = keys.slot(fieldString(field, b, s, e, dialect));
+				} else {
+					slot = keys.slot(b, s, e);
+				}
+			}
+			int base = ensure(slot);
+
+			for (int j = 0; j < n; j++) {
+				int c = valCol[j];
+				if (c < 0) {
+					cnt[base + j]++;
+					continue;
+				}
+				int s = starts[c], e = ends[c];
+				if (isEmpty(b, s, e)) {
+					continue;
+				}
+				double v = parseDouble(b, s, e, dialect.quote);
+				add(base + j, ops[j], v, 1);
+			}
+		}
+
+		private boolean isEmpty(char[] b, int s, int e) {
+			for (; s < e; s++) {
+				if (b[s] > ' ') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void add(int i, Op op, double v, long c) {
+			if (cnt[i] == 0) {
+				acc[i] = v;
+			} else {
+				switch (op) {
+				case MIN:
+					acc[i] = Math.min(acc[i], v);
+					break;
+				case MAX:
+					acc[i] = Math.max(acc[i], v);
+					break;
+				default:
+					acc[i] += v;
+				}
+			}
+			cnt[i] += c;
+		}
+
+		private int ensure(int slot) {
+			int base = slot * n;
+			if (base + n > acc.length) {
+				int len = Math.max(acc.length << 1, base + n);
+				acc = Arrays.copyOf(acc, len);
+				cnt = Arrays.copyOf(cnt, len);
+			}
+			return base;
+		}
+
+		void merge(AggTask t) {
+			for (int k = 0; k < t.keys.size; k++) {
+				int base = ensure(keys.slot(t.keys.keys[k]));
+				int tb = k * n;
+				for (int j = 0; j < n; j++) {
+					if (t.cnt[tb + j] > 0) {
+						if (ops[j] == Op.COUNT) {
+							cnt[base + j] += t.cnt[tb + j];
+						} else {
+							add(base + j, ops[j], t.acc[tb + j], t.cnt[tb + j]);
+						}
+					}
+				}
+			}
+		}
+
+		AggregateResult result() {
+			double[][] values = new double[keys.size][n];
+			for (int k = 0; k < keys.size; k++) {
+				int base = k * n;
+				for (int j = 0; j < n; j++) {
+					long c = cnt[base + j];
+					switch (ops[j]) {
+					case COUNT:
+						values[k][j] = c;
+						break;
+					case SUM:
+						values[k][j] = acc[base + j];
+						break;
+					case MEAN:
+						values[k][j] = c == 0 ? Double.NaN : acc[base + j] / c;
+						break;
+					default:
+						values[k][j] = c == 0 ? Double.NaN : acc[base + j];
+					}
+				}
+			}
+			return new AggregateResult(agg.names(), keys, values);
+		}
+
+	}
+
+}
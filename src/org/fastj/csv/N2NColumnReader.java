@@ -0,0 +1,219 @@
+package org.fastj.csv;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fastj.csv.Util.*;
+
+/**
+ * 解析与转换合并的多线程读取: 处理线程扫描字段后直接转换为数值或对象, 不创建中间的String[](Multi-threaded read with parsing and
+ * conversion fused: the parse tasks convert the scanned fields straight to numbers or objects, no String[] in between)
+ *
+ * <p>
+ * 每个任务把值写入自己的按列数组, 或由RecordFactory创建记录; 结束后按轮转顺序合并为文件顺序(Each task writes the values into its own
+ * column arrays, or creates records through a RecordFactory; the results are merged back into file order by the round robin).
+ *
+ * @param <R>
+ *            记录类型, 按列读取时不使用(Record type, unused when reading columns)
+ */
+final class N2NColumnReader<R> extends N2NScanReader<N2NColumnReader<R>.Task> {
+
+	private final ColumnMapping.Kind[] kinds;
+	private final Object[] converters;
+	private final RecordFactory<R> factory;
+
+	N2NColumnReader(String file, int rsize, int psizePerReader, int headline, ColumnMapping mapping, RecordFactory<R> factory, CsvDialect dialect)
+			throws IOException {
+		super(openBlocks(file, rsize), psizePerReader, headline, mapping.columns(), dialect, true);
+		this.kinds = mapping.kinds.toArray(new ColumnMapping.Kind[mapping.size()]);
+		this.converters = mapping.converters.toArray();
+		this.factory = factory;
+	}
+
+	@Override
+	Task newTask() {
+		return new Task();
+	}
+
+	TypedColumns columns() throws IOException {
+		List<Task> tasks = scan();
+		int total = 0;
+		for (Task t : tasks) {
+			total += t.size;
+		}
+
+		Object[] columns = new Object[olen];
+		for (int c = 0; c < olen; c++) {
+			switch (kinds[c]) {
+			case DOUBLE:
+				columns[c] = new double[total];
+				break;
+			case LONG:
+				columns[c] = new long[total];
+				break;
+			default:
+				columns[c] = new Object[total];
+			}
+		}
+
+		int pc = 0;
+		int psize = distributors[0].size();
+		for (int i = 0; i < readers.length; i++) {
+			int from = i * psize;
+			int count = 0;
+			for (int k = 0; k < psize; k++) {
+				count += tasks.get(from + k).size;
+			}
+			for (int c = 0; c < olen; c++) {
+				// 轮转交错, 与LineDistributor.interleave相同(Round robin interleave, as in LineDistributor.interleave)
+				for (int r = 0; r < count; r++) {
+					Task t = tasks.get(from + r % psize);
+					int at = r / psize;
+					switch (kinds[c]) {
+					case DOUBLE:
+						((double[]) columns[c])[pc + r] = ((double[]) t.columns[c])[at];
+						break;
+					case LONG:
+						((long[]) columns[c])[pc + r] = ((long[]) t.columns[c])[at];
+						break;
+					default:
+						((Object[]) columns[c])[pc + r] = ((Object[]) t.columns[c])[at];
+					}
+				}
+			}
+			pc += count;
+		}
+		return new TypedColumns(header, columns, total);
+	}
+
+	List<R> records() throws IOException {
+		List<Task> tasks = scan();
+		int total = 0;
+		for (Task t : tasks) {
+			total += t.rows.size();
+		}
+		@SuppressWarnings("unchecked")
+		R[] data = (R[]) new Object[total];
+		int pc = 0;
+		int psize = distributors[0].size();
+		for (int i = 0; i < readers.length; i++) {
+			pc += LineDistributor.interleave(tasks, i * psize, psize, data, pc);
+		}
+		return Arrays.asList(data);
+	}
+
+	class Task extends RowTask<R> {
+
+		final int[] starts = new int[olen];
+		final int[] ends = new int[olen];
+		final FieldView view = new FieldView();
+		final MappedRow row = new MappedRow(olen);
+		/** 按列读取时每列的数组(Per column arrays when reading columns) */
+		Object[] columns;
+		int size;
+		int capacity;
+
+		@Override
+		void expect(int rows) {
+			if (factory != null) {
+				super.expect(rows);
+				return;
+			}
+			capacity = Math.max(16, RowChunks.firstSize(rows));
+			columns = new Object[olen];
+			for (int c = 0; c < olen; c++) {
+				columns[c] = newColumn(kinds[c], capacity);
+			}
+		}
+
+		@Override
+		void handle(CharBuf line) {
+			if (factory != null) {
+				rows.add(parse(line));
+				return;
+			}
+			if (size == capacity) {
+				grow();
+			}
+			convert(line);
+			for (int c = 0; c < olen; c++) {
+				switch (kinds[c]) {
+				case DOUBLE:
+					((double[]) columns[c])[size] = row.doubles[c];
+					break;
+				case LONG:
+					((long[]) columns[c])[size] = row.longs[c];
+					break;
+				default:
+					((Object[]) columns[c])[size] = row.objects[c];
+				}
+			}
+			size++;
+		}
+
+		@Override
+		R parse(CharBuf line) {
+			convert(line);
+			return factory.create(row);
+		}
+
+		@Override
+		R[] newArray(int size) {
+			@SuppressWarnings("unchecked")
+			R[] a = (R[]) new Object[size];
+			return a;
+		}
+
+		private void convert(CharBuf line) {
+			scanFields(line, idxmap, olen, starts, ends, dialect);
+			for (int c = 0; c < olen; c++) {
+				if (starts[c] < 0) {
+					view.set(line.value, 0, 0);
+				} else {
+					view.resolve(line.value, starts[c], ends[c], dialect);
+				}
+				switch (kinds[c]) {
+				case DOUBLE:
+					row.doubles[c] = ((ToDoubleConverter) converters[c]).convert(view);
+					break;
+				case LONG:
+					row.longs[c] = ((ToLongConverter) converters[c]).convert(view);
+					break;
+				default:
+					row.objects[c] = ((ColumnConverter<?>) converters[c]).convert(view);
+				}
+			}
+		}
+
+		/**
+		 * 估计行数偏小时扩容一半(Grow by half when the row estimate was short)
+		 */
+		private void grow() {
+			capacity += capacity >> 1;
+			for (int c = 0; c < olen; c++) {
+				Object a = columns[c];
+				if (a instanceof double[]) {
+					columns[c] = Arrays.copyOf((double[]) a, capacity);
+				} else if (a instanceof long[]) {
+					columns[c] = Arrays.copyOf((long[]) a, capacity);
+				} else {
+					columns[c] = Arrays.copyOf((Object[]) a, capacity);
+				}
+			}
+		}
+
+	}
+
+	private static Object newColumn(ColumnMapping.Kind kind, int cap) {
+		switch (kind) {
+		case DOUBLE:
+			return new double[cap];
+		case LONG:
+			return new long[cap];
+		default:
+			return new Object[cap];
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在内存预算内流式读取(Streaming read within a memory budget)
+ *
+ * <p>
+ * 溢出模式下处理线程把超出预算的整段行写入临时文件, 游标按需读回; 背压模式下读线程在预算用尽时阻塞(In spill mode the parse tasks write
+ * full row segments beyond the budget to a temporary file that the cursor reads back lazily; in backpressure mode the
+ * readers block while the budget is used up).
+ *
+ * @param <R>
+ *            行类型(Row type)
+ */
+final class N2NCursorReader<R> extends N2NScanReader<N2NCursorReader<R>.Task> {
+
+	final RowCodec<R> codec;
+	final MemoryBudget budget;
+	final boolean spill;
+
+	/**
+	 * @param spill
+	 *            true: 溢出到磁盘, 适合文件; false: 背压, 只能有一个读线程(true: spill to disk, for files; false: backpressure,
+	 *            single reader only)
+	 */
+	N2NCursorReader(ChannelReader[] readers, int psizePerReader, int headline, String[] rcols, CsvDialect dialect, RowCodec<R> codec,
+			long memoryBudget, boolean spill) throws IOException {
+		super(readers, psizePerReader, headline, rcols, dialect, true);
+		if (!spill && readers.length != 1) {
+			closeReaders();
+			// 后面的块会占满预算而游标还在等前面的块(Later blocks would fill the budget while the cursor waits on earlier ones)
+			throw new IllegalArgumentException("Backpressure needs a single reader");
+		}
+		this.codec = codec;
+		this.budget = new MemoryBudget(memoryBudget);
+		this.spill = spill;
+		job.onStop(budget::close);
+	}
+
+	@Override
+	Task newTask() {
+		return new Task();
+	}
+
+	@Override
+	void admit(CharBuf line) throws IOException {
+		if (!spill) {
+			try {
+				budget.reserve(codec.weight(line, olen));
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+	}
+
+	RowCursor<R> open() {
+		List<Task> tasks = start(null);
+		List<RowQueue<R>> queues = new ArrayList<>(tasks.size());
+		for (Task t : tasks) {
+			queues.add(t.queue);
+		}
+		return new RowCursor<>(header, queues, distributors[0].size(), budget, job);
+	}
+
+	class Task extends LineTask {
+
+		final RowQueue<R> queue = new RowQueue<>(codec, budget, spill, N2NCursorReader.this.job);
+		final CharBuf field = new CharBuf(64);
+
+		@Override
+		void handle(CharBuf line) {
+			queue.add(codec.parse(line, field, olen, idxmap, dialect), codec.weight(line, olen));
+		}
+
+		@Override
+		void done() {
+			queue.finish();
+		}
+
+	}
+
+}
@@ -0,0 +1,57 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 只统计不物化的单遍读取(One statistics-only pass, rows are never materialized)
+ */
+final class N2NProfileReader extends N2NScanReader<N2NProfileReader.StatsTask> {
+
+	N2NProfileReader(String file, int rsize, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		this(openBlocks(file, rsize), psizePerReader, headline, rcols, dialect);
+	}
+
+	N2NProfileReader(ChannelReader[] readers, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		super(readers, psizePerReader, headline, rcols, dialect);
+	}
+
+	@Override
+	StatsTask newTask() {
+		return new StatsTask();
+	}
+
+	ColumnStats[] get() throws IOException {
+		return collect(scan());
+	}
+
+	CompletableFuture<ColumnStats[]> getAsync() {
+		return scanAsync(() -> collect(tasks));
+	}
+
+	private ColumnStats[] collect(List<StatsTask> tasks) {
+		StatsCollector total = new StatsCollector(olen, dialect);
+		for (StatsTask t : tasks) {
+			total.merge(t.stats);
+		}
+		return total.toStats(header);
+	}
+
+	class StatsTask extends LineTask {
+
+		final StatsCollector stats = new StatsCollector(olen, dialect);
+		final int[] starts = new int[olen];
+		final int[] ends = new int[olen];
+
+		@Override
+		void handle(CharBuf line) {
+			scanFields(line, idxmap, olen, starts, ends, dialect);
+			stats.add(line.value, starts, ends);
+		}
+
+	}
+
+}
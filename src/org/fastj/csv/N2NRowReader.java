@@ -0,0 +1,93 @@
+package org.fastj.csv;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.fastj.csv.Util.*;
+
+/**
+ * 结果为字段视图的多线程读取, 每个处理线程把字段内容复制到自己的字符块, 每行只创建一个对象(Multi-threaded read into field views, each
+ * parse task copies the field contents into its own char chunks and creates one object per row)
+ */
+final class N2NRowReader extends N2NScanReader<N2NRowReader.Task> {
+
+	/** 字符块大小(Char chunk size) */
+	static final int CHARS = 32 * 1024;
+	/** 位置块大小(Bounds chunk size) */
+	static final int BOUNDS = 8 * 1024;
+
+	N2NRowReader(String file, int rsize, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		this(openBlocks(file, rsize), psizePerReader, headline, rcols, dialect);
+	}
+
+	N2NRowReader(ChannelReader[] readers, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		super(readers, psizePerReader, headline, rcols, dialect, true);
+	}
+
+	@Override
+	Task newTask() {
+		return new Task();
+	}
+
+	CsvRow[] get() throws IOException {
+		List<Task> tasks = scan();
+		if (tasks.size() == 1) {
+			return tasks.get(0).rows.toArray();
+		}
+
+		int total = 0;
+		for (Task t : tasks) {
+			total += t.rows.size();
+		}
+		CsvRow[] data = new CsvRow[total];
+		int pc = 0;
+		int psize = distributors[0].size();
+		for (int i = 0; i < readers.length; i++) {
+			pc += LineDistributor.interleave(tasks, i * psize, psize, data, pc);
+		}
+		return data;
+	}
+
+	class Task extends RowTask<CsvRow> {
+
+		final int[] starts = new int[olen];
+		final int[] ends = new int[olen];
+		char[] chars = new char[CHARS];
+		int cpos;
+		int[] bounds = new int[BOUNDS];
+		int bpos;
+
+		@Override
+		CsvRow parse(CharBuf line) {
+			if (cpos + line.count > chars.length) {
+				chars = new char[Math.max(CHARS, line.count)];
+				cpos = 0;
+			}
+			if (bpos + (olen << 1) > bounds.length) {
+				bounds = new int[Math.max(BOUNDS, olen << 1)];
+				bpos = 0;
+			}
+
+			scanFields(line, idxmap, olen, starts, ends, dialect);
+			int at = bpos;
+			for (int j = 0; j < olen; j++) {
+				if (starts[j] < 0) {
+					bounds[bpos++] = -1;
+					bounds[bpos++] = -1;
+					continue;
+				}
+				bounds[bpos++] = cpos;
+				cpos = copyField(line.value, starts[j], ends[j], chars, cpos, dialect);
+				bounds[bpos++] = cpos;
+			}
+			return new CsvRow(chars, bounds, at, olen);
+		}
+
+		@Override
+		CsvRow[] newArray(int size) {
+			return new CsvRow[size];
+		}
+
+	}
+
+}
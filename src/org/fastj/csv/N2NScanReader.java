@@ -0,0 +1,308 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分块读取, 每个读线程把行分发给自己的处理线程, 每个处理线程保存自己的结果(Block readers, each fanning its lines out to its own parse
+ * tasks, every task keeps its own result)
+ *
+ * <p>
+ * 有序模式下严格轮转分发, 结果交错即为原顺序, 无需按行号排序(In ordered mode lines are dealt strictly round robin, so interleaving
+ * the task results restores the order without sorting by line number).
+ *
+ * <p>
+ * 第一个错误或取消会停止所有读线程和处理线程, 并关闭通道以唤醒阻塞的读取(The first error or a cancel stops every reader
+ * and parse task, and closes the channels to wake blocked reads).
+ *
+ * @param <T>
+ *            处理线程类型(Parse task type)
+ */
+abstract class N2NScanReader<T extends LineTask> {
+
+	ChannelReader[] readers;
+	LineDistributor[] distributors;
+	final CsvDialect dialect;
+	/** 文件列头(Header of the file) */
+	final String[] fileHeader;
+	/** 预先解析的列头, 可为null(Prepared header, may be null) */
+	final CsvSchema schema;
+	/**
+	 * 读取的列头、列数和原列号到投影列号的映射, 由project设置(Header, count and source-to-projected map of the columns read, set
+	 * by project)
+	 */
+	String[] header;
+	int olen;
+	int[] idxmap;
+	final boolean ordered;
+	final ReadJob job = new ReadJob();
+	final CountDownLatch finished;
+	private final AtomicInteger running;
+	/** 所有处理线程, 按读线程、缓冲区顺序排列(All parse tasks, in reader then buffer order) */
+	List<T> tasks;
+	/** 跳过的行数和最多读取的行数(Lines to skip and the most lines to read) */
+	private long offset;
+	private long limit = Long.MAX_VALUE;
+
+	N2NScanReader(ChannelReader[] readers, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		this(readers, psizePerReader, headline, rcols, dialect, false);
+	}
+
+	N2NScanReader(ChannelReader[] readers, int psizePerReader, int headline, String[] rcols, CsvDialect dialect, boolean ordered)
+			throws IOException {
+		this(readers, psizePerReader, headline, dialect, null, rcols, ordered);
+	}
+
+	/**
+	 * 按预先解析的列头读取, 只跳过列头行(Read with a prepared header, the header line is only skipped)
+	 */
+	N2NScanReader(ChannelReader[] readers, int psizePerReader, CsvSchema schema, String[] rcols, boolean ordered) throws IOException {
+		this(readers, psizePerReader, schema.headerLine, schema.dialect, schema, rcols, ordered);
+	}
+
+	/**
+	 * 构造失败时(列头不符、未知列等)关闭读取器(The readers are closed when construction fails, on a header mismatch, an unknown
+	 * column...)
+	 *
+	 * @param rcols
+	 *            需要读取的列头, null为全部(Columns to read, null for all)
+	 */
+	private N2NScanReader(ChannelReader[] readers, int psizePerReader, int headline, CsvDialect dialect, CsvSchema schema, String[] rcols,
+			boolean ordered) throws IOException {
+		this.readers = readers;
+		this.ordered = ordered;
+		this.schema = schema;
+		this.finished = new CountDownLatch(readers.length);
+		this.running = new AtomicInteger(readers.length);
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		distributors = new LineDistributor[readers.length];
+
+		try {
+			for (ChannelReader r : readers) {
+				r.dialect(this.dialect);
+			}
+			for (int i = 0; i < readers.length; i++) {
+				distributors[i] = new LineDistributor(psizePerReader, 64, job);
+			}
+
+			ChannelReader fhr = readers[0];
+			CharBuf hl = null;
+			while (headline-- >= 0) {
+				hl = fhr.readLine(hl);
+			}
+
+			if (schema == null) {
+				fileHeader = parseSimple(hl, this.dialect); // throw NPE if headline < 0
+			} else if (schema.matches(hl)) {
+				fileHeader = schema.header;
+			} else {
+				throw new IOException("Header differs from the schema: " + (hl == null ? null : new String(hl.value, 0, hl.count)));
+			}
+			if (hl != null) {
+				// 无列头的schema不读取列头行(A headerless schema reads no header line)
+				CharBuf.POOL.release(hl);
+			}
+			project(rcols);
+		} catch (Throwable e) {
+			closeReaders();
+			throw e;
+		}
+
+		job.onStop(() -> {
+			for (ChannelReader r : readers) {
+				r.abort();
+			}
+		});
+	}
+
+	/**
+	 * 构造失败时关闭读取器, 保留原来的异常; 子类构造在super之后失败时也需调用(Close the readers when construction fails, keeping the
+	 * original exception; also called when a subclass constructor fails after super)
+	 */
+	final void closeReaders() {
+		for (ChannelReader r : readers) {
+			try {
+				r.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * 计算投影, 有schema时用其列名索引(Resolve the projection, through the schema name index when there is one)
+	 */
+	private void project(String[] rcols) {
+		int[] vidx = schema != null ? schema.vidx(rcols) : createVidx(fileHeader, rcols);
+		idxmap = createIdxMap(fileHeader.length, vidx);
+		olen = vidx.length;
+		header = rcols != null ? rcols : fileHeader;
+	}
+
+	/**
+	 * 只读取第offset行起的至多limit行, 读够后读线程立即停止(Read at most limit lines starting at line offset, the reader stops
+	 * as soon as it has enough); 在启动前调用(Call before starting)
+	 * 
+	 * <p>
+	 * 行号是全局的, 所以只支持单个读线程(Line numbers are global, so a single reader only).
+	 */
+	void range(long offset, long limit) {
+		if (readers.length != 1) {
+			throw new IllegalArgumentException("A row range needs a single reader");
+		}
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("Negative offset or limit: " + offset + ", " + limit);
+		}
+		this.offset = offset;
+		this.limit = limit;
+	}
+
+	/**
+	 * 创建一个处理线程, 在列头解析之后调用(Create one parse task, called after the header is parsed)
+	 */
+	abstract T newTask();
+
+	/**
+	 * 读取并等待结束(Read and wait until done)
+	 *
+	 * @return 所有处理线程, 均已结束(All parse tasks, all finished)
+	 * @throws IOException
+	 *             第一个读取或解析错误; 被中断时为InterruptedIOException(The first read or parse error; InterruptedIOException
+	 *             when interrupted)
+	 */
+	List<T> scan() throws IOException {
+		start(null);
+		try {
+			finished.await();
+		} catch (InterruptedException e) {
+			job.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Read interrupted");
+		}
+		job.check();
+		return tasks;
+	}
+
+	/**
+	 * 异步读取, 最后一个读线程结束时在该线程中收集结果, 不占用等待线程(Read asynchronously, the last reader to finish collects the
+	 * result on its own thread, no thread is blocked waiting)
+	 *
+	 * <p>
+	 * 取消Future会停止读取(Cancelling the future stops the load).
+	 */
+	<V> CompletableFuture<V> scanAsync(Callable<V> collect) {
+		CompletableFuture<V> future = new CompletableFuture<>();
+		future.whenComplete((v, e) -> {
+			if (e != null) {
+				job.cancel();
+			}
+		});
+		start(() -> {
+			try {
+				if (job.stopped()) {
+					future.completeExceptionally(job.failure());
+				} else {
+					future.complete(collect.call());
+				}
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 启动读线程后立即返回(Start the read threads and return at once)
+	 *
+	 * @param onFinish
+	 *            最后一个读线程结束时执行, 可为null(Run by the last reader to finish, may be null)
+	 * @return 所有处理线程, 按读线程、缓冲区顺序排列(All parse tasks, in reader then buffer order)
+	 */
+	List<T> start(Runnable onFinish) {
+		final List<T> all = new ArrayList<>();
+		final List<LineTask[]> groups = new ArrayList<>(readers.length);
+
+		for (int i = 0; i < readers.length; i++) {
+			LineTask[] group = new LineTask[distributors[i].size()];
+			int rows = estimateRows(readers[i]);
+			if (limit < Integer.MAX_VALUE && (rows < 0 || rows > limit)) {
+				rows = (int) limit;
+			}
+			for (int k = 0; k < group.length; k++) {
+				T t = newTask();
+				t.expect(rows < 0 ? -1 : rows / group.length + 1);
+				group[k] = t;
+				all.add(t);
+			}
+			groups.add(group);
+		}
+		tasks = all;
+
+		for (int i = 0; i < readers.length; i++) {
+			final int pc = i;
+			// 读线程与其处理线程在同一组(A reader runs in the same group as its parse tasks)
+			Executor pool = Util.executor(i);
+			readers[i].pool = pool;
+			pool.execute(() -> {
+				try {
+					read(readers[pc], distributors[pc], groups.get(pc), pool);
+				} finally {
+					finished.countDown();
+					if (running.decrementAndGet() == 0) {
+						job.done();
+						if (onFinish != null) {
+							onFinish.run();
+						}
+					}
+				}
+			});
+		}
+
+		return all;
+	}
+
+	/**
+	 * 分发前调用, 可阻塞读线程以实现背压(Called before a line is dealt, may block the reader for backpressure)
+	 */
+	void admit(CharBuf line) throws IOException {
+	}
+
+	void read(ChannelReader reader, LineDistributor distributor, LineTask[] tasks, Executor pool) {
+		CharBuf buf = CharBuf.POOL.get();
+
+		try (ChannelReader r = reader) {
+			distributor.start(tasks, pool);
+			CharBuf line = buf;
+			long n = 0;
+			long end = offset + limit < 0 ? Long.MAX_VALUE : offset + limit;
+			while (!job.stopped() && n < end && (line = r.readLine(line)) != null) {
+				if (n++ < offset) {
+					continue;
+				}
+				admit(line);
+				if (ordered) {
+					distributor.putInOrder(line.copy());
+				} else {
+					distributor.put(line.copy());
+				}
+			}
+		} catch (Throwable e) {
+			job.fail(e);
+		} finally {
+			CharBuf.POOL.release(buf);
+			distributor.finish();
+		}
+
+		distributor.await();
+	}
+
+}
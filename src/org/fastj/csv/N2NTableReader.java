@@ -0,0 +1,95 @@
+package org.fastj.csv;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fastj.csv.Util.*;
+
+/**
+ * 读取为紧凑字符串表, 每个处理线程按块保存字段内容和结束位置(Read into a compact string table, each parse task keeps blocks of
+ * field contents and end offsets)
+ */
+final class N2NTableReader extends N2NScanReader<N2NTableReader.Task> {
+
+	final int chunkRows;
+
+	N2NTableReader(String file, int rsize, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		this(openBlocks(file, rsize), psizePerReader, headline, rcols, dialect);
+	}
+
+	N2NTableReader(ChannelReader[] readers, int psizePerReader, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		super(readers, psizePerReader, headline, rcols, dialect, true);
+		chunkRows = CsvTable.chunkRows(olen);
+	}
+
+	N2NTableReader(String file, int rsize, int psizePerReader, CsvSchema schema, String[] rcols) throws IOException {
+		this(openBlocks(file, rsize), psizePerReader, schema, rcols);
+	}
+
+	N2NTableReader(ChannelReader[] readers, int psizePerReader, CsvSchema schema, String[] rcols) throws IOException {
+		super(readers, psizePerReader, schema, rcols, true);
+		chunkRows = CsvTable.chunkRows(olen);
+	}
+
+	@Override
+	Task newTask() {
+		return new Task();
+	}
+
+	CsvTable get() throws IOException {
+		List<Task> tasks = scan();
+		int psize = distributors[0].size();
+		int[] readerStart = new int[readers.length + 1];
+		CsvTable.Chunk[][] chunks = new CsvTable.Chunk[tasks.size()][];
+		for (int i = 0; i < readers.length; i++) {
+			int rows = 0;
+			for (int k = 0; k < psize; k++) {
+				Task t = tasks.get(i * psize + k);
+				rows += t.rows;
+				chunks[i * psize + k] = t.chunks.toArray(new CsvTable.Chunk[t.chunks.size()]);
+			}
+			readerStart[i + 1] = readerStart[i] + rows;
+		}
+		return new CsvTable(header, readerStart, psize, chunks, chunkRows);
+	}
+
+	class Task extends LineTask {
+
+		final List<CsvTable.Chunk> chunks = new ArrayList<>();
+		final int[] starts = new int[olen];
+		final int[] ends = new int[olen];
+		CsvTable.Chunk cur;
+		int rows;
+
+		@Override
+		void handle(CharBuf line) {
+			CsvTable.Chunk c = cur;
+			if (c == null || c.rows == chunkRows) {
+				// 按上一块的大小分配, 第一块按首行长度估计(Size from the previous chunk, the first from the first line)
+				int hint = c != null ? c.clen + (c.clen >>> 3) : (int) Math.min(1 << 24, (long) line.count * chunkRows);
+				cur = c = new CsvTable.Chunk(chunkRows, olen, Math.max(1024, hint));
+				chunks.add(c);
+			}
+			if (c.clen + line.count > c.chars.length) {
+				c.chars = Arrays.copyOf(c.chars, Math.max(c.chars.length << 1, c.clen + line.count));
+			}
+
+			scanFields(line, idxmap, olen, starts, ends, dialect);
+			int base = c.rows * olen;
+			for (int j = 0; j < olen; j++) {
+				if (starts[j] < 0) {
+					c.ends[base + j] = ~c.clen;
+				} else {
+					c.clen = copyField(line.value, starts[j], ends[j], c.chars, c.clen, dialect);
+					c.ends[base + j] = c.clen;
+				}
+			}
+			c.rows++;
+			rows++;
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.fastj.csv;
+
+/**
+ * 本地文件的读缓冲区设置, 按读取传入(Read buffer settings for local files, passed per read)
+ *
+ * <p>
+ * 大于32KB时使用按页对齐的直接缓冲区, 文件读入其中后复制一次到扫描数组, 与JDK读入堆数组时相同(Above 32KB a page aligned
+ * direct buffer is used; the file is read into it and copied once into the scan array, the same copy the JDK makes for a heap
+ * read). 开启预读时, 每个读线程在扫描当前缓冲区的同时, 由执行器上的另一线程读取下一缓冲区, 磁盘读取与解析重叠(With read-ahead on, each
+ * reader has the next buffer read on another executor thread while the current one is scanned, so disk reads overlap parsing).
+ * 每个读线程占用约两倍缓冲区大小的内存(Each reader holds about twice the buffer size).
+ *
+ * <p>
+ * 绕过页缓存时以O_DIRECT打开文件(JDK 10+的ExtendedOpenOption.DIRECT), 每个分块从对齐的位置读整页, 扫描不会挤出页缓存中的其它数据(Bypassing the
+ * cache opens files with O_DIRECT, ExtendedOpenOption.DIRECT on JDK 10+, and each block reads whole pages from an aligned offset,
+ * so a scan does not evict the rest of the page cache). 每次读取都直接访问磁盘, 只用于只读一次的大文件扫描, 并配合1MB以上的缓冲区和预读(Every
+ * read goes to the disk, so keep it to one-shot scans of huge files with a buffer of 1MB or more and read-ahead). JDK、系统或文件系统不支持时(如tmpfs)按普通方式读取(Where
+ * the JDK, OS or file system does not support it, tmpfs for one, files are read normally).
+ */
+public final class ReadBuffer {
+
+	/** 默认的32KB堆缓冲区, 不预读(The default 32KB heap buffer, no read-ahead) */
+	public static final ReadBuffer DEFAULT = new ReadBuffer(0, false);
+
+	final int bytes;
+	final boolean readAhead;
+	final boolean bypassCache;
+
+	/**
+	 * @param bytes
+	 *            缓冲区大小, 按4KB页取整, 0为默认32KB(Buffer size, rounded up to 4KB pages, 0 for the default 32KB)
+	 * @param readAhead
+	 *            是否预读(Read ahead?)
+	 */
+	public ReadBuffer(int bytes, boolean readAhead) {
+		this(bytes, readAhead, false);
+	}
+
+	/**
+	 * @param bypassCache
+	 *            是否以O_DIRECT绕过页缓存(Bypass the page cache with O_DIRECT?)
+	 */
+	public ReadBuffer(int bytes, boolean readAhead, boolean bypassCache) {
+		if (bytes < 0 || bytes > 256 << 20) {
+			throw new IllegalArgumentException("Read buffer out of range 0..256MB: " + bytes);
+		}
+		this.bytes = bytes;
+		this.readAhead = readAhead;
+		this.bypassCache = bypassCache;
+	}
+
+	/**
+	 * @return 此JDK是否支持绕过页缓存(Is bypassing the cache supported by this JDK?)
+	 */
+	public static boolean bypassSupported() {
+		return ChannelReader.DIRECT != null;
+	}
+
+	@Override
+	public String toString() {
+		return "ReadBuffer[bytes=" + bytes + ", readAhead=" + readAhead + ", bypassCache=" + bypassCache + "]";
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.fastj.csv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * 一次读取的停止状态: 第一个错误或取消, 所有读线程和处理线程逐行检查(Stop state of one load: first error or cancellation,
+ * checked per line by every reader and parse task)
+ */
+final class ReadJob {
+
+	private volatile Throwable error;
+	private volatile boolean cancelled;
+	private final List<Runnable> hooks = new ArrayList<>();
+
+	boolean stopped() {
+		return cancelled || error != null;
+	}
+
+	/**
+	 * 记录第一个错误并停止, 之后的错误忽略(Record the first error and stop, later errors are ignored)
+	 */
+	void fail(Throwable t) {
+		synchronized (this) {
+			if (stopped()) {
+				return;
+			}
+			error = t;
+		}
+		stop();
+	}
+
+	void cancel() {
+		synchronized (this) {
+			if (stopped()) {
+				return;
+			}
+			cancelled = true;
+		}
+		stop();
+	}
+
+	/**
+	 * 停止时执行, 例如关闭通道以唤醒阻塞的读取(Run on stop, e.g. close a channel to wake a blocked read)
+	 */
+	void onStop(Runnable hook) {
+		synchronized (this) {
+			if (!stopped()) {
+				hooks.add(hook);
+				return;
+			}
+		}
+		hook.run();
+	}
+
+	private void stop() {
+		List<Runnable> hs;
+		synchronized (this) {
+			hs = new ArrayList<>(hooks);
+			hooks.clear();
+		}
+		for (Runnable h : hs) {
+			h.run();
+		}
+	}
+
+	/**
+	 * 读取结束, 不再需要停止钩子(Load finished, the stop hooks are no longer needed)
+	 */
+	synchronized void done() {
+		hooks.clear();
+	}
+
+	/**
+	 * 已停止则抛出对应异常(Throw the matching exception if stopped)
+	 */
+	void check() throws IOException {
+		Throwable t = error;
+		if (t != null) {
+			if (t instanceof IOException) {
+				throw (IOException) t;
+			}
+			if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new IOException(t);
+		}
+		if (cancelled) {
+			throw new InterruptedIOException("Read cancelled");
+		}
+	}
+
+	/**
+	 * 用于完成Future的异常(Exception to complete a future with)
+	 */
+	Throwable failure() {
+		Throwable t = error;
+		if (t != null) {
+			return t;
+		}
+		return new CancellationException("Read cancelled");
+	}
+
+}
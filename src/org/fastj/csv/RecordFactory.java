@@ -0,0 +1,18 @@
+package org.fastj.csv;
+
+/**
+ * 由一行转换后的值创建记录, 在处理线程中执行(Create a record from the converted values of one row, run on the parse tasks)
+ *
+ * @param <R>
+ *            记录类型(Record type)
+ */
+@FunctionalInterface
+public interface RecordFactory<R> {
+
+	/**
+	 * @param row
+	 *            当前行, 调用后复用, 不要保存(The current row, reused after the call, do not keep it)
+	 */
+	R create(MappedRow row);
+
+}
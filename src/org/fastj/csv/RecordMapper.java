@@ -0,0 +1,277 @@
+package org.fastj.csv;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fastj.csv.ColumnMapping.blank;
+import static org.fastj.csv.ColumnMapping.parseLong;
+
+/**
+ * 按列名把行映射为record或POJO: 列位置、转换和访问器只在开始时绑定一次, 之后每行只调用MethodHandle(Map rows to records or POJOs
+ * by column name: column positions, conversions and accessors are bound once up front, each row then only invokes
+ * MethodHandles)
+ *
+ * <p>
+ * record按规范构造器的参数名绑定; POJO需要无参构造器, 按非static、非final、非transient的字段名绑定(Records bind by the
+ * canonical constructor's component names; POJOs need a no-arg constructor and bind by non-static, non-final, non-transient
+ * field names). 不在列头中的组件或字段保持默认值(Components or fields missing from the header keep their defaults).
+ *
+ * <p>
+ * 支持的类型(Supported types): 基本数值类型及其包装类、boolean/Boolean、String、BigDecimal、枚举(primitive numbers and
+ * their wrappers, boolean/Boolean, String, BigDecimal, enums). 包装类、BigDecimal和枚举的空字段为null, 基本类型为0或false(Empty
+ * fields are null for wrappers, BigDecimal and enums, 0 or false for primitives). 超出int、short、byte范围的整数抛出
+ * NumberFormatException(Integers out of int, short or byte range throw NumberFormatException).
+ *
+ * @param <T>
+ *            记录类型(Record type)
+ */
+final class RecordMapper<T> implements RecordFactory<T> {
+
+	private static final MethodHandle GET_DOUBLE;
+	private static final MethodHandle GET_LONG;
+	private static final MethodHandle GET;
+	private static final MethodHandle TO_FLOAT;
+	private static final MethodHandle TO_INT;
+	private static final MethodHandle TO_SHORT;
+	private static final MethodHandle TO_BYTE;
+
+	static {
+		try {
+			MethodHandles.Lookup l = MethodHandles.lookup();
+			GET_DOUBLE = l.findVirtual(MappedRow.class, "getDouble", MethodType.methodType(double.class, int.class));
+			GET_LONG = l.findVirtual(MappedRow.class, "getLong", MethodType.methodType(long.class, int.class));
+			GET = l.findVirtual(MappedRow.class, "get", MethodType.methodType(Object.class, int.class));
+			TO_FLOAT = l.findStatic(RecordMapper.class, "toFloat", MethodType.methodType(float.class, double.class));
+			TO_INT = l.findStatic(RecordMapper.class, "toInt", MethodType.methodType(int.class, long.class));
+			TO_SHORT = l.findStatic(RecordMapper.class, "toShort", MethodType.methodType(short.class, long.class));
+			TO_BYTE = l.findStatic(RecordMapper.class, "toByte", MethodType.methodType(byte.class, long.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	final ColumnMapping mapping = new ColumnMapping();
+	/** record为(MappedRow)Object, POJO为()Object(Record: (MappedRow)Object; POJO: ()Object) */
+	private MethodHandle create;
+	/** POJO的字段赋值, 每个为(Object, MappedRow)void(POJO field setters, each (Object, MappedRow)void) */
+	private MethodHandle[] setters;
+
+	private RecordMapper() {
+	}
+
+	/**
+	 * @param header
+	 *            文件的列头(The file's header)
+	 * @throws IllegalArgumentException
+	 *             没有可绑定的列, 或类型不支持(No column to bind, or an unsupported type)
+	 */
+	static <T> RecordMapper<T> bind(Class<T> type, String[] header) {
+		List<String> names = Arrays.asList(header);
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+			RecordMapper<T> m = new RecordMapper<>();
+			Object[] components = recordComponents(type);
+			if (components != null) {
+				m.bindRecord(type, components, names, lookup);
+			} else {
+				m.bindPojo(type, names, lookup);
+			}
+			if (m.mapping.size() == 0) {
+				throw new IllegalArgumentException("No column of " + type.getName() + " in header " + names);
+			}
+			return m;
+		} catch (IllegalAccessException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("Cannot bind " + type.getName() + ": " + e.getMessage(), e);
+		}
+	}
+
+	private void bindRecord(Class<T> type, Object[] components, List<String> names, MethodHandles.Lookup lookup)
+			throws IllegalAccessException, NoSuchMethodException {
+		Class<?>[] types = new Class<?>[components.length];
+		String[] cnames = new String[components.length];
+		for (int i = 0; i < components.length; i++) {
+			cnames[i] = (String) invoke(components[i], "getName");
+			types[i] = (Class<?>) invoke(components[i], "getType");
+		}
+		Constructor<T> ctor = type.getDeclaredConstructor(types);
+		MethodHandle mh = lookup.unreflectConstructor(ctor);
+
+		// 每个参数由MappedRow取值, 再合并为一个MappedRow参数(Each argument is read from the MappedRow, then all are merged
+		// into one MappedRow argument)
+		MethodHandle[] getters = new MethodHandle[types.length];
+		for (int i = 0; i < types.length; i++) {
+			getters[i] = names.contains(cnames[i]) ? column(cnames[i], types[i]) : defaultValue(types[i]);
+		}
+		mh = MethodHandles.filterArguments(mh, 0, getters);
+		mh = MethodHandles.permuteArguments(mh, MethodType.methodType(type, MappedRow.class), new int[types.length]);
+		create = mh.asType(MethodType.methodType(Object.class, MappedRow.class));
+		setters = null;
+	}
+
+	private void bindPojo(Class<T> type, List<String> names, MethodHandles.Lookup lookup)
+			throws IllegalAccessException, NoSuchMethodException {
+		create = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+		List<MethodHandle> list = new ArrayList<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				int mod = f.getModifiers();
+				if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || Modifier.isTransient(mod) || !names.contains(f.getName())
+						|| mapping.cols.contains(f.getName())) {
+					continue;
+				}
+				MethodHandle set = MethodHandles.privateLookupIn(c, MethodHandles.lookup()).unreflectSetter(f);
+				set = MethodHandles.filterArguments(set, 1, column(f.getName(), f.getType()));
+				list.add(set.asType(MethodType.methodType(void.class, Object.class, MappedRow.class)));
+			}
+		}
+		setters = list.toArray(new MethodHandle[list.size()]);
+	}
+
+	/**
+	 * 加入列的转换, 返回从MappedRow读取该列的(MappedRow)type(Add the column's conversion and return a (MappedRow)type handle
+	 * reading it back)
+	 */
+	private MethodHandle column(String name, Class<?> type) {
+		int col = mapping.size();
+		MethodHandle get;
+		if (type == double.class || type == float.class) {
+			mapping.asDouble(name);
+			get = GET_DOUBLE;
+		} else if (type == long.class || type == int.class || type == short.class || type == byte.class) {
+			mapping.asLong(name);
+			get = GET_LONG;
+		} else {
+			mapping.as(name, converter(type));
+			get = GET;
+		}
+		get = MethodHandles.insertArguments(get, 1, col);
+		// 窄类型按范围检查转换, 不做静默截断(Narrow types go through range checks, never a silent truncation)
+		if (type == float.class) {
+			get = MethodHandles.filterReturnValue(get, TO_FLOAT);
+		} else if (type == int.class) {
+			get = MethodHandles.filterReturnValue(get, TO_INT);
+		} else if (type == short.class) {
+			get = MethodHandles.filterReturnValue(get, TO_SHORT);
+		} else if (type == byte.class) {
+			get = MethodHandles.filterReturnValue(get, TO_BYTE);
+		}
+		return get.asType(MethodType.methodType(type, MappedRow.class));
+	}
+
+	private static float toFloat(double v) {
+		return (float) v;
+	}
+
+	private static int toInt(long v) {
+		if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Value out of int range: " + v);
+		}
+		return (int) v;
+	}
+
+	private static short toShort(long v) {
+		if (v < Short.MIN_VALUE || v > Short.MAX_VALUE) {
+			throw new NumberFormatException("Value out of short range: " + v);
+		}
+		return (short) v;
+	}
+
+	private static byte toByte(long v) {
+		if (v < Byte.MIN_VALUE || v > Byte.MAX_VALUE) {
+			throw new NumberFormatException("Value out of byte range: " + v);
+		}
+		return (byte) v;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ColumnConverter<?> converter(Class<?> type) {
+		if (type == String.class) {
+			return ColumnMapping.STRING;
+		} else if (type == boolean.class) {
+			return f -> blank(f) ? Boolean.FALSE : Boolean.valueOf(f.toString().trim());
+		} else if (type == Boolean.class) {
+			return f -> blank(f) ? null : Boolean.valueOf(f.toString().trim());
+		} else if (type == Double.class) {
+			return f -> blank(f) ? null : f.toDouble();
+		} else if (type == Float.class) {
+			return f -> blank(f) ? null : toFloat(f.toDouble());
+		} else if (type == Long.class) {
+			return f -> blank(f) ? null : parseLong(f);
+		} else if (type == Integer.class) {
+			return f -> blank(f) ? null : toInt(parseLong(f));
+		} else if (type == Short.class) {
+			return f -> blank(f) ? null : toShort(parseLong(f));
+		} else if (type == Byte.class) {
+			return f -> blank(f) ? null : toByte(parseLong(f));
+		} else if (type == BigDecimal.class) {
+			return f -> blank(f) ? null : new BigDecimal(f.toString().trim());
+		} else if (type.isEnum()) {
+			Class<? extends Enum> e = (Class<? extends Enum>) type;
+			return f -> f.length() == 0 ? null : Enum.valueOf(e, f.toString());
+		}
+		throw new IllegalArgumentException("Unsupported type: " + type.getName());
+	}
+
+	/**
+	 * 不在列头中的组件: 返回默认值的(MappedRow)type(A component missing from the header: (MappedRow)type returning the
+	 * default value)
+	 */
+	private static MethodHandle defaultValue(Class<?> type) {
+		return MethodHandles.dropArguments(MethodHandles.zero(type), 0, MappedRow.class);
+	}
+
+	/**
+	 * record的组件, 不是record或JDK不支持record时为null; 通过反射调用以兼容JDK9(Record components, null if not a record
+	 * or the JDK has no records; called reflectively to stay JDK9 compatible)
+	 */
+	private static Object[] recordComponents(Class<?> type) {
+		try {
+			Method isRecord = Class.class.getMethod("isRecord");
+			if (!(Boolean) isRecord.invoke(type)) {
+				return null;
+			}
+			return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Cannot read record components of " + type.getName(), e);
+		}
+	}
+
+	private static Object invoke(Object target, String method) {
+		try {
+			return target.getClass().getMethod(method).invoke(target);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T create(MappedRow row) {
+		try {
+			if (setters == null) {
+				return (T) create.invokeExact(row);
+			}
+			Object t = create.invokeExact();
+			for (MethodHandle set : setters) {
+				set.invokeExact(t, row);
+			}
+			return (T) t;
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -1,32 +1,40 @@
 package org.fastj.csv;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.locks.LockSupport;
 
 /**
- * Simple RingBuffer(Not Thread Safe, 1 reader 1 writer)
- * 
+ * 单生产者单消费者环形缓冲区(Single producer single consumer RingBuffer, 1 reader 1 writer)
+ *
+ * <p>
+ * 写位置与读位置各占独立的缓存行, 前后均有填充(The write and read positions sit on cache lines of their own, padded on both
+ * sides). 每一方缓存对方的位置, 只在看似满或空时才以acquire读取对方的位置(Each side caches the other's position and only reads the
+ * other's position, with acquire, when the queue looks full or empty). 位置以release方式发布, 批量操作只发布一次(Positions are
+ * published with release ordering, once per batch for the batch operations). 填充只在生产者与消费者运行在不同核上时起作用(The
+ * padding only matters when the producer and the consumer run on different cores).
+ *
  * @author zhou
  *
  * @param <T>
  */
-public class RingBuffer<T> {
-
-	private volatile int wpc;
-	private final int mask;
-	// L1 Cache line padding
-	long p1, p2, p3, p4, p5, p6, p7, p8, p9, p10, p11, p12, p13, p14, p15;
-	private volatile int rpc;
-	private volatile boolean finish = false;
-	private volatile Object[] queue;
-	int failCnt = 0;
+public class RingBuffer<T> extends RingBufferPad3 {
 
-	public RingBuffer(int size) {
-		if ((size & (size - 1)) != 0) {
-			throw new IllegalArgumentException("size must be a power of 2!");
+	private static final VarHandle WPC;
+	private static final VarHandle RPC;
+
+	static {
+		try {
+			MethodHandles.Lookup l = MethodHandles.lookup();
+			WPC = l.findVarHandle(RingBufferProducer.class, "wpc", long.class);
+			RPC = l.findVarHandle(RingBufferConsumer.class, "rpc", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
 		}
-		queue = new Object[size];
-		wpc = rpc = 0;
-		mask = size - 1;
+	}
+
+	public RingBuffer(int size) {
+		super(size);
 	}
 
 	public boolean add(T t) {
@@ -34,41 +42,190 @@ public class RingBuffer<T> {
 			throw new NullPointerException();
 		}
 
-		if (finish) {
+		if (closed) {
 			throw new IllegalStateException("RB is finished.");
 		}
 
-		if (isFull()) {
-			return false;
+		long w = wpc;
+		if (w - cachedRpc >= capacity) {
+			cachedRpc = (long) RPC.getAcquire(this);
+			if (w - cachedRpc >= capacity) {
+				return false;
+			}
 		}
 
-		queue[wpc] = t;
-		wpc = (wpc + 1) & mask;
+		queue[(int) w & mask] = t;
+		WPC.setRelease(this, w + 1);
 		return true;
 	}
 
+	/**
+	 * 批量加入, 只发布一次写位置(Add a batch, publishing the write position once)
+	 *
+	 * @return 加入的个数, 空间不足时少于len(Number added, less than len when short of room)
+	 */
+	public int addAll(T[] items, int off, int len) {
+		if (closed) {
+			throw new IllegalStateException("RB is finished.");
+		}
+
+		long w = wpc;
+		int free = (int) (capacity - (w - cachedRpc));
+		if (free < len) {
+			cachedRpc = (long) RPC.getAcquire(this);
+			free = (int) (capacity - (w - cachedRpc));
+		}
+		int n = Math.min(free, len);
+		for (int i = 0; i < n; i++) {
+			T t = items[off + i];
+			if (t == null) {
+				throw new NullPointerException();
+			}
+			queue[(int) (w + i) & mask] = t;
+		}
+		if (n > 0) {
+			WPC.setRelease(this, w + n);
+		}
+		return n;
+	}
+
+	/**
+	 * 取一个元素, 为空时等待; 结束且已取完时为null(Take one element, waiting while empty; null once finished and drained)
+	 */
+	@SuppressWarnings("unchecked")
 	public T get() {
-		for (; isEmpty();) {
-			if (finish) {
-				return null;
+		long r = rpc;
+		if (r == cachedWpc) {
+			while (r == (cachedWpc = (long) WPC.getAcquire(this))) {
+				if (finish) {
+					// finish在最后一次加入之后写入, 再读一次写位置(finish is written after the last add, read the write
+					// position once more)
+					if (r == (cachedWpc = (long) WPC.getAcquire(this))) {
+						return null;
+					}
+					break;
+				}
+				failCnt++;
+				LockSupport.parkNanos(1);
 			}
-			failCnt++;
-			LockSupport.parkNanos(1);
 		}
-		T t = (T) queue[rpc];
-		rpc = (rpc + 1) & mask;
+		int idx = (int) r & mask;
+		T t = (T) queue[idx];
+		queue[idx] = null;
+		RPC.setRelease(this, r + 1);
 		return t;
 	}
 
+	/**
+	 * 不等待地取出至多max个元素, 只发布一次读位置(Take up to max elements without waiting, publishing the read position once)
+	 *
+	 * @return 取出的个数, 为空时为0(Number taken, 0 when empty)
+	 */
+	@SuppressWarnings("unchecked")
+	public int drainTo(T[] out, int max) {
+		long r = rpc;
+		int n = (int) (cachedWpc - r);
+		if (n < max) {
+			cachedWpc = (long) WPC.getAcquire(this);
+			n = (int) (cachedWpc - r);
+		}
+		n = Math.min(n, max);
+		for (int i = 0; i < n; i++) {
+			int idx = (int) (r + i) & mask;
+			out[i] = (T) queue[idx];
+			queue[idx] = null;
+		}
+		if (n > 0) {
+			RPC.setRelease(this, r + n);
+		}
+		return n;
+	}
+
+	/**
+	 * 由生产者调用, 之后不能再加入(Called by the producer, nothing can be added afterwards)
+	 */
 	public void finish() {
+		closed = true;
 		finish = true;
 	}
 
-	private final boolean isEmpty() {
-		return rpc == wpc;
+}
+
+/**
+ * 只读或很少写入的字段(Fields read by both sides and rarely written)
+ */
+abstract class RingBufferFields {
+
+	final Object[] queue;
+	final int mask;
+	final int capacity;
+	volatile boolean finish = false;
+
+	RingBufferFields(int size) {
+		if (size <= 0 || (size & (size - 1)) != 0) {
+			throw new IllegalArgumentException("size must be a power of 2!");
+		}
+		queue = new Object[size];
+		capacity = size;
+		mask = size - 1;
+	}
+
+}
+
+// 缓存行填充: 子类的字段排在父类之后, 每段填充128字节以覆盖相邻行预取(Cache line padding: subclass fields are laid out after
+// the superclass's, each pad is 128 bytes to cover adjacent line prefetch)
+
+abstract class RingBufferPad1 extends RingBufferFields {
+	long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+
+	RingBufferPad1(int size) {
+		super(size);
+	}
+}
+
+/**
+ * 生产者的字段(Producer fields)
+ */
+abstract class RingBufferProducer extends RingBufferPad1 {
+	/** 写位置, 只增不回绕; 由消费者以acquire读取(Write position, grows without wrapping; read by the consumer with acquire) */
+	long wpc;
+	/** 生产者缓存的读位置(Read position as last seen by the producer) */
+	long cachedRpc;
+	/** 生产者自己的结束标志, 加入时不读volatile的finish(The producer's own finish flag, so adding reads no volatile) */
+	boolean closed;
+
+	RingBufferProducer(int size) {
+		super(size);
+	}
+}
+
+abstract class RingBufferPad2 extends RingBufferProducer {
+	long p20, p21, p22, p23, p24, p25, p26, p27, p28, p29, p30, p31, p32, p33, p34, p35;
+
+	RingBufferPad2(int size) {
+		super(size);
 	}
+}
+
+/**
+ * 消费者的字段(Consumer fields)
+ */
+abstract class RingBufferConsumer extends RingBufferPad2 {
+	/** 读位置, 只增不回绕; 由生产者以acquire读取(Read position, grows without wrapping; read by the producer with acquire) */
+	long rpc;
+	/** 消费者缓存的写位置(Write position as last seen by the consumer) */
+	long cachedWpc;
+	int failCnt = 0;
+
+	RingBufferConsumer(int size) {
+		super(size);
+	}
+}
+
+abstract class RingBufferPad3 extends RingBufferConsumer {
+	long p40, p41, p42, p43, p44, p45, p46, p47, p48, p49, p50, p51, p52, p53, p54, p55;
 
-	private final boolean isFull() {
-		return ((wpc + 1) & mask) == rpc;
+	RingBufferPad3(int size) {
+		super(size);
 	}
 }
@@ -0,0 +1,150 @@
+package org.fastj.csv;
+
+import java.util.Arrays;
+
+/**
+ * 一批行: 原始文本加每个字段的位置, 不为每行创建String[](A batch of rows: the raw text plus the span of every field, no
+ * String[] per row)
+ *
+ * <p>
+ * 字段在访问时才转换, 按列取数值可得到基本类型数组(Fields are converted on access, a numeric column comes back as a primitive
+ * array). 缺失的字段(行的字段数不足)为null或0.0(Missing fields, on short rows, are null or 0.0).
+ *
+ * <p>
+ * 非线程安全(Not thread safe).
+ */
+public final class RowBatch {
+
+	private final String[] header;
+	private final CsvDialect dialect;
+	private final char[] text;
+	private final int[] starts;
+	private final int[] ends;
+	private final int rows;
+	private final int cols;
+	private CharBuf field;
+
+	RowBatch(String[] header, CsvDialect dialect, char[] text, int[] starts, int[] ends, int rows) {
+		this.header = header;
+		this.dialect = dialect;
+		this.text = text;
+		this.starts = starts;
+		this.ends = ends;
+		this.rows = rows;
+		this.cols = header.length;
+	}
+
+	/**
+	 * 读取的列头(Header of the columns read)
+	 */
+	public String[] getHeader() {
+		return header;
+	}
+
+	/**
+	 * 行数(Number of rows)
+	 */
+	public int size() {
+		return rows;
+	}
+
+	public int columns() {
+		return cols;
+	}
+
+	/**
+	 * 字段是否缺失(Is the field missing from a short row?)
+	 */
+	public boolean isMissing(int row, int col) {
+		return starts[index(row, col)] < 0;
+	}
+
+	/**
+	 * 字段值, 已处理引号和转义; 缺失为null(Field value with quotes and escapes resolved; null when missing)
+	 */
+	public String getString(int row, int col) {
+		int i = index(row, col);
+		if (starts[i] < 0) {
+			return null;
+		}
+		if (field == null) {
+			field = new CharBuf(64);
+		}
+		return Util.fieldString(field, text, starts[i], ends[i], dialect);
+	}
+
+	/**
+	 * 字段视图, 未加引号的字段直接指向批次文本; 缺失为null(Field view, an unquoted field points straight into the batch text;
+	 * null when missing)
+	 */
+	public FieldView getField(int row, int col) {
+		int i = index(row, col);
+		return starts[i] < 0 ? null : new FieldView().resolve(text, starts[i], ends[i], dialect);
+	}
+
+	/**
+	 * 把字段放入可重复使用的视图(Point a reusable view at the field)
+	 *
+	 * @return 字段缺失时为false(false when the field is missing)
+	 */
+	public boolean getField(int row, int col, FieldView into) {
+		int i = index(row, col);
+		if (starts[i] < 0) {
+			return false;
+		}
+		into.resolve(text, starts[i], ends[i], dialect);
+		return true;
+	}
+
+	/**
+	 * 字段数值, 缺失为0.0(Numeric field value, 0.0 when missing)
+	 *
+	 * @throws NumberFormatException
+	 *             不是数值(Not a number)
+	 */
+	public double getDouble(int row, int col) {
+		int i = index(row, col);
+		if (starts[i] < 0) {
+			return 0.0;
+		}
+		return Util.parseDouble(text, starts[i], ends[i], dialect.quote);
+	}
+
+	/**
+	 * 一列的数值(One column as doubles)
+	 *
+	 * @throws NumberFormatException
+	 *             不是数值(Not a number)
+	 */
+	public double[] doubles(int col) {
+		double[] v = new double[rows];
+		for (int r = 0; r < rows; r++) {
+			v[r] = getDouble(r, col);
+		}
+		return v;
+	}
+
+	/**
+	 * 一行转为String[](One row as String[])
+	 */
+	public String[] row(int row) {
+		String[] r = new String[cols];
+		for (int c = 0; c < cols; c++) {
+			r[c] = getString(row, c);
+		}
+		return r;
+	}
+
+	private int index(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) {
+			throw new IndexOutOfBoundsException("row " + row + ", col " + col);
+		}
+		return row * cols + col;
+	}
+
+	@Override
+	public String toString() {
+		return "RowBatch[rows=" + rows + ", header=" + Arrays.toString(header) + "]";
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.fastj.csv;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * 分块行存储: 第一块按估计行数分配, 至多MAX_FIRST行, 超出部分按固定大小追加, 增长时不复制(Chunked row store: the first chunk
+ * is sized from the row estimate, MAX_FIRST rows at most, overflow goes to fixed-size chunks, growing never copies)
+ *
+ * @param <R>
+ *            行类型(Row type)
+ */
+final class RowChunks<R> {
+
+	static final int SHIFT = 12;
+	static final int CHUNK = 1 << SHIFT;
+	static final int MASK = CHUNK - 1;
+	/**
+	 * 第一块的最大行数: 估计只来自文件开头, 后面的行更长时会偏大很多(Most rows in the first chunk: the estimate only samples the
+	 * head of the file and can be far too large when later lines are longer)
+	 */
+	static final int MAX_FIRST = 1 << 16;
+
+	final R[] first;
+	private Object[][] more = new Object[4][];
+	private int size;
+
+	/**
+	 * @param first
+	 *            第一块, 长度为firstSize(First chunk, firstSize long)
+	 */
+	RowChunks(R[] first) {
+		this.first = first;
+	}
+
+	/**
+	 * @param estimate
+	 *            估计行数, -1为未知(Estimated rows, -1 if unknown)
+	 */
+	static int firstSize(int estimate) {
+		return estimate < 0 ? CHUNK : Math.min(estimate, MAX_FIRST);
+	}
+
+	void add(R row) {
+		int n = size - first.length;
+		if (n < 0) {
+			first[size++] = row;
+			return;
+		}
+		int c = n >>> SHIFT;
+		if (c == more.length) {
+			more = Arrays.copyOf(more, c << 1);
+		}
+		if (more[c] == null) {
+			more[c] = new Object[CHUNK];
+		}
+		more[c][n & MASK] = row;
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	R get(int i) {
+		int n = i - first.length;
+		return n < 0 ? first[i] : (R) more[n >>> SHIFT][n & MASK];
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return 复制的行数(Number of rows copied)
+	 */
+	int copyTo(R[] out, int off) {
+		int n = Math.min(size, first.length);
+		System.arraycopy(first, 0, out, off, n);
+		for (int c = 0; n < size; c++) {
+			int len = Math.min(CHUNK, size - n);
+			System.arraycopy(more[c], 0, out, off + n, len);
+			n += len;
+		}
+		return size;
+	}
+
+	/**
+	 * 精确长度的结果: 估计准确时不复制, 否则复制一次(Exact-size result: no copy when the estimate was exact, one copy otherwise)
+	 */
+	@SuppressWarnings("unchecked")
+	R[] toArray() {
+		if (size == first.length) {
+			return first;
+		}
+		R[] out = (R[]) Array.newInstance(first.getClass().getComponentType(), size);
+		copyTo(out, 0);
+		return out;
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.fastj.csv;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 行类型: 解析、内存估计和溢出文件编码(Row kind: parsing, memory estimate and spill file encoding)
+ *
+ * @param <R>
+ *            行类型(Row type)
+ */
+abstract class RowCodec<R> {
+
+	static final RowCodec<String[]> STRING = new RowCodec<String[]>() {
+
+		@Override
+		void write(String[] row, DataOutput out) throws IOException {
+			out.writeInt(row.length);
+			for (String s : row) {
+				if (s == null) {
+					out.writeInt(-1);
+					continue;
+				}
+				out.writeInt(s.length());
+				out.writeChars(s);
+			}
+		}
+
+		@Override
+		String[] read(DataInput in, char[] tmp) throws IOException {
+			String[] row = new String[in.readInt()];
+			for (int i = 0; i < row.length; i++) {
+				int len = in.readInt();
+				if (len < 0) {
+					continue;
+				}
+				char[] cs = len <= tmp.length ? tmp : new char[len];
+				for (int j = 0; j < len; j++) {
+					cs[j] = in.readChar();
+				}
+				row[i] = new String(cs, 0, len);
+			}
+			return row;
+		}
+
+		@Override
+		String[] parse(CharBuf line, CharBuf field, int len, int[] idxmap, CsvDialect d) {
+			return Util.parseCSVLine(line, field, len, idxmap, d);
+		}
+
+		@Override
+		long weight(CharBuf line, int cols) {
+			return 16 + 2L * line.count + 44L * cols;
+		}
+
+		@Override
+		String[][] newArray(int size) {
+			return new String[size][];
+		}
+	};
+
+	static final RowCodec<double[]> MATRIX = new RowCodec<double[]>() {
+
+		@Override
+		void write(double[] row, DataOutput out) throws IOException {
+			out.writeInt(row.length);
+			for (double d : row) {
+				out.writeDouble(d);
+			}
+		}
+
+		@Override
+		double[] read(DataInput in, char[] tmp) throws IOException {
+			double[] row = new double[in.readInt()];
+			for (int i = 0; i < row.length; i++) {
+				row[i] = in.readDouble();
+			}
+			return row;
+		}
+
+		@Override
+		double[] parse(CharBuf line, CharBuf field, int len, int[] idxmap, CsvDialect d) {
+			return Util.parseCSVMatrix(line, len, idxmap, d);
+		}
+
+		@Override
+		long weight(CharBuf line, int cols) {
+			return 16 + 8L * cols;
+		}
+
+		@Override
+		double[][] newArray(int size) {
+			return new double[size][];
+		}
+	};
+
+	abstract R parse(CharBuf line, CharBuf field, int len, int[] idxmap, CsvDialect d);
+
+	abstract void write(R row, DataOutput out) throws IOException;
+
+	abstract R read(DataInput in, char[] tmp) throws IOException;
+
+	/**
+	 * 一行解析后占用的估计字节数, 只依赖原始行(Estimated bytes of one parsed row, from the raw line only)
+	 */
+	abstract long weight(CharBuf line, int cols);
+
+	abstract R[] newArray(int size);
+
+}
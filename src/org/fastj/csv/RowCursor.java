@@ -0,0 +1,117 @@
+package org.fastj.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按文件顺序逐行返回结果, 解析在后台进行, 内存受预算限制(Rows in file order while parsing continues in the background, memory
+ * bounded by a budget)
+ *
+ * <p>
+ * 溢出模式下每个处理线程正在填充的一段(1024行)不计入溢出, 是预算之外的最大余量(In spill mode the 1024-row segment each parse task is
+ * filling is never spilled, that is the largest overshoot beyond the budget).
+ *
+ * <p>
+ * 非线程安全, 用完或提前放弃时必须关闭(Not thread safe, close it when done or when abandoning it early).
+ *
+ * @param <R>
+ *            String[] 或 double[](String[] or double[])
+ */
+public final class RowCursor<R> implements Iterator<R>, Closeable {
+
+	private final String[] header;
+	private final List<RowQueue<R>> queues;
+	private final int psize;
+	private final int readers;
+	private final MemoryBudget budget;
+	private final ReadJob job;
+	private int reader;
+	private int idx;
+	private R next;
+	private boolean end;
+
+	RowCursor(String[] header, List<RowQueue<R>> queues, int psize, MemoryBudget budget, ReadJob job) {
+		this.job = job;
+		this.header = header;
+		this.queues = queues;
+		this.psize = psize;
+		this.readers = queues.size() / psize;
+		this.budget = budget;
+	}
+
+	public String[] getHeader() {
+		return header;
+	}
+
+	/**
+	 * @throws UncheckedIOException
+	 *             读取、解析或溢出文件失败, 第一个错误(The first read, parse or spill file failure)
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next == null && !end) {
+			next = fetch();
+		}
+		return next != null;
+	}
+
+	@Override
+	public R next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		R r = next;
+		next = null;
+		return r;
+	}
+
+	private R fetch() {
+		while (reader < readers) {
+			R r = queues.get(reader * psize + idx % psize).take();
+			if (r != null) {
+				idx++;
+				return r;
+			}
+			if (job.stopped()) {
+				// 不返回截断的结果(Never hand out a truncated result)
+				close();
+				try {
+					job.check();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			// 轮转分发: 一个队列结束则本读线程的其它队列也已结束(Round robin: one drained queue means the reader is drained)
+			for (int k = 0; k < psize; k++) {
+				queues.get(reader * psize + k).close();
+			}
+			reader++;
+			idx = 0;
+		}
+		end = true;
+		return null;
+	}
+
+	/**
+	 * 已预留的估计字节数(Estimated bytes currently reserved)
+	 */
+	long reserved() {
+		return budget.used();
+	}
+
+	@Override
+	public void close() {
+		end = true;
+		next = null;
+		job.cancel();
+		budget.close();
+		for (RowQueue<R> q : queues) {
+			q.close();
+		}
+	}
+
+}
@@ -0,0 +1,273 @@
+package org.fastj.csv;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 一个处理线程到游标的无界单生产者单消费者行队列, 超出预算时可把整段溢出到临时文件(Unbounded single-producer single-consumer row queue
+ * from one parse task to the cursor, full segments can be spilled to a temporary file when over budget)
+ *
+ * @param <R>
+ *            行类型(Row type)
+ */
+final class RowQueue<R> {
+
+	static final int SEG = 1024;
+	/** 消费方累计释放的字节数(Bytes released by the consumer in one batch) */
+	private static final long FLUSH = 64 * 1024;
+
+	static final int MEM = 0, READING = 1, SPILLING = 2, SPILLED = 3;
+
+	static final class Segment {
+		Object[] rows = new Object[SEG];
+		int[] weights = new int[SEG];
+		volatile int count;
+		volatile Segment next;
+		final AtomicInteger state = new AtomicInteger(MEM);
+		long bytes;
+		long pos;
+		int len;
+	}
+
+	private final RowCodec<R> codec;
+	private final MemoryBudget budget;
+	private final boolean spill;
+	private final ReadJob job;
+	private final AtomicInteger users = new AtomicInteger(2);
+	private volatile boolean finished;
+	private volatile boolean closed;
+
+	// 生产方(Producer side)
+	private Segment tail;
+	private final ArrayDeque<Segment> full = new ArrayDeque<>();
+	private FileChannel file;
+	private long fileEnd;
+	private final ByteArrayOutputStream bout = new ByteArrayOutputStream(64 * 1024);
+	private final DataOutputStream out = new DataOutputStream(bout);
+
+	// 消费方(Consumer side)
+	private Segment head;
+	private Object[] hrows;
+	private int[] hweights;
+	private int hidx;
+	private long pending;
+	private final char[] tmp = new char[256];
+
+	/**
+	 * @param spill
+	 *            超出预算时溢出到磁盘, 否则预算由读线程预留(Spill when over budget, otherwise the reader reserves the budget)
+	 * @param job
+	 *            溢出失败时立即停止读取(Failed as soon as a spill fails)
+	 */
+	RowQueue(RowCodec<R> codec, MemoryBudget budget, boolean spill, ReadJob job) {
+		this.codec = codec;
+		this.budget = budget;
+		this.spill = spill;
+		this.job = job;
+		head = tail = new Segment();
+	}
+
+	void add(R row, long weight) {
+		if (closed) {
+			if (!spill) {
+				budget.release(weight);
+			}
+			return;
+		}
+		if (spill && !budget.tryReserve(weight)) {
+			if (!spill()) {
+				return;
+			}
+			budget.forceReserve(weight);
+		}
+
+		Segment t = tail;
+		int c = t.count;
+		if (c == SEG) {
+			Segment n = new Segment();
+			if (spill) {
+				full.add(t);
+			}
+			t.next = n;
+			tail = t = n;
+			c = 0;
+		}
+		t.rows[c] = row;
+		t.weights[c] = (int) weight;
+		t.bytes += weight;
+		t.count = c + 1;
+	}
+
+	void finish() {
+		finished = true;
+		leave();
+	}
+
+	/**
+	 * 把消费方尚未进入的满段写入临时文件(Write the full segments the consumer has not entered yet to the temporary file)
+	 *
+	 * @return 写入失败时为false, 读取已失败(false if a write failed, the job has failed)
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean spill() {
+		for (Segment s; (s = full.poll()) != null;) {
+			if (!s.state.compareAndSet(MEM, SPILLING)) {
+				continue;
+			}
+			try {
+				if (file == null) {
+					file = FileChannel.open(Files.createTempFile("fastcsv-", ".spill"), StandardOpenOption.READ, StandardOpenOption.WRITE,
+							StandardOpenOption.DELETE_ON_CLOSE);
+				}
+				bout.reset();
+				for (int i = 0; i < SEG; i++) {
+					codec.write((R) s.rows[i], out);
+				}
+				out.flush();
+				ByteBuffer bb = ByteBuffer.wrap(bout.toByteArray());
+				s.pos = fileEnd;
+				s.len = bb.remaining();
+				while (bb.hasRemaining()) {
+					file.write(bb, fileEnd + bb.position());
+				}
+				fileEnd += s.len;
+			} catch (IOException e) {
+				s.state.set(MEM);
+				// 预算已无法保证, 立即停止, 不依赖消费方发现(The budget can no longer hold, stop now instead of relying on the
+				// consumer to notice)
+				job.fail(e);
+				return false;
+			}
+			long b = s.bytes;
+			s.rows = null;
+			s.weights = null;
+			s.state.set(SPILLED);
+			budget.release(b);
+		}
+		return true;
+	}
+
+	/**
+	 * @return 下一行, 生产方结束且无数据或读取已停止时为null(Next row, null once the producer finished and the queue is drained, or
+	 *         the job stopped)
+	 */
+	@SuppressWarnings("unchecked")
+	R take() {
+		for (;;) {
+			if (hrows == null) {
+				enter(head);
+			}
+			Segment h = head;
+			boolean end = finished;
+			if (hidx < h.count) {
+				R r = (R) hrows[hidx];
+				hrows[hidx] = null;
+				if (hweights != null) {
+					pending += hweights[hidx];
+					if (pending >= FLUSH) {
+						flush();
+					}
+				}
+				hidx++;
+				return r;
+			}
+			if (hidx == SEG && h.next != null) {
+				h.rows = null;
+				h.weights = null;
+				head = h.next;
+				hrows = null;
+				hidx = 0;
+				continue;
+			}
+			if (end) {
+				flush();
+				close();
+				return null;
+			}
+			if (job.stopped()) {
+				flush();
+				return null;
+			}
+			flush();
+			LockSupport.parkNanos(1);
+		}
+	}
+
+	private void enter(Segment s) {
+		for (;;) {
+			if (s.state.compareAndSet(MEM, READING)) {
+				hrows = s.rows;
+				hweights = s.weights;
+				return;
+			}
+			if (s.state.get() == SPILLED) {
+				hrows = load(s);
+				hweights = null;
+				return;
+			}
+			LockSupport.parkNanos(1);
+		}
+	}
+
+	private Object[] load(Segment s) {
+		try {
+			ByteBuffer bb = ByteBuffer.allocate(s.len);
+			while (bb.hasRemaining()) {
+				if (file.read(bb, s.pos + bb.position()) < 0) {
+					throw new EOFException();
+				}
+			}
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bb.array()));
+			Object[] rows = new Object[SEG];
+			for (int i = 0; i < SEG; i++) {
+				rows[i] = codec.read(in, tmp);
+			}
+			return rows;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void flush() {
+		if (pending > 0) {
+			budget.release(pending);
+			pending = 0;
+		}
+	}
+
+	/**
+	 * 消费方提前关闭(Consumer closed early)
+	 */
+	void close() {
+		if (!closed) {
+			closed = true;
+			leave();
+		}
+	}
+
+	/**
+	 * 两方都结束后删除临时文件(Delete the temporary file once both sides are done)
+	 */
+	private void leave() {
+		if (users.decrementAndGet() == 0 && file != null) {
+			try {
+				file.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+}
@@ -0,0 +1,301 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.createIdxMap;
+import static org.fastj.csv.Util.createVidx;
+import static org.fastj.csv.Util.parseSimple;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 不扫描全文件的随机抽样: 随机定位到许多小窗口, 每个窗口从下一行边界开始, 随机取至多PER_WINDOW行, 再对取到的行做蓄水池抽样(Random
+ * sample without a full scan: seek to many random small windows, resync each to the next line boundary, take up to
+ * PER_WINDOW random lines from it and reservoir-sample the lines taken)
+ *
+ * <p>
+ * 每个窗口只取几行, 样本分散在整个文件中, 而不是集中在少数连续的块里(Only a few lines come from each window, so the sample is spread
+ * over the whole file instead of clustered in a few contiguous blocks). 行按起点归属窗口, 与多线程读取的分块相同, 每行只属于一个窗口(A
+ * line belongs to the window it starts in, the same split as the multi-threaded reads, so every line is in exactly one window).
+ *
+ * <p>
+ * 需要的窗口接近全文件时连续读取, 结果是精确的均匀抽样(When the windows needed approach the whole file it is read straight
+ * through and the sample is exactly uniform). 否则是近似均匀的: 行数少于PER_WINDOW的窗口(行较长处)中的行概率偏高(Otherwise it is
+ * only approximately uniform: lines in windows holding fewer lines than PER_WINDOW, where lines are longer, are favoured). 与分块读取一样,
+ * 窗口边界落在多行引号字段中时可能错位(As with block reads, a boundary inside a multi-line quoted field can misalign).
+ */
+final class RowSampler {
+
+	/** 每次定位读取的窗口大小(Bytes per seek window) */
+	static final int WINDOW = 4096;
+	/** 每个窗口至多取的行数(Most lines taken from one window) */
+	static final int PER_WINDOW = 2;
+	/** 取到的行数约为样本数的倍数(Lines taken, as a multiple of the sample size) */
+	static final int OVERSAMPLE = 2;
+
+	private RowSampler() {
+	}
+
+	/**
+	 * @return 按文件顺序的样本(The sample, in file order)
+	 */
+	static <R> R[] sample(String file, String[] cols, int k, long seed, int headerLine, CsvDialect dialect, RowCodec<R> codec) throws IOException {
+		if (k < 0) {
+			throw new IllegalArgumentException("Negative sample size: " + k);
+		}
+		CsvDialect d = dialect != null ? dialect : CsvDialect.DEFAULT;
+		long size = Files.size(new File(file).toPath());
+
+		String[] h;
+		long dataStart;
+		try (ChannelReader r = new ChannelReader(file, 0, Long.MAX_VALUE, -1)) {
+			r.dialect(d);
+			CharBuf hl = null;
+			int headline = headerLine;
+			while (headline-- >= 0) {
+				hl = r.readLine(hl);
+			}
+			h = parseSimple(hl, d); // throw NPE if headline < 0
+			CharBuf.POOL.release(hl);
+			dataStart = r.position();
+		}
+		int[] vidx = createVidx(h, cols);
+		int[] idxmap = createIdxMap(h.length, vidx);
+		int olen = vidx.length;
+
+		long dataSize = Math.max(0, size - dataStart);
+		long windows = Math.max(1, (dataSize + WINDOW - 1) / WINDOW);
+		long target = (long) k * OVERSAMPLE;
+		long want = (target + PER_WINDOW - 1) / PER_WINDOW;
+
+		Random rnd = new Random(seed ^ 0x5DEECE66DL);
+		Reservoir res = new Reservoir(k, rnd);
+		CharBuf buf = CharBuf.POOL.get();
+		try {
+			if (k == 0) {
+				// 不读取(Nothing to read)
+			} else if (want * 2 >= windows) {
+				// 接近全文件时连续读取, 结果精确(Close to the whole file, read it straight through for an exact result)
+				readAll(file, dataStart, d, res, buf);
+			} else {
+				seek(file, dataStart, windows, target, want, new Random(seed), d, res, buf);
+				if (res.seen < k) {
+					// 窗口都用完仍不够k行, 连续读取以返回min(k, 行数)(Every window used and still short of k: read straight
+					// through to return min(k, rows))
+					res = new Reservoir(k, rnd);
+					readAll(file, dataStart, d, res, buf);
+				}
+			}
+		} finally {
+			CharBuf.POOL.release(buf);
+		}
+
+		int n = (int) Math.min(k, res.seen);
+		char[][] lines = res.lines;
+		long[] order = res.order;
+		Integer[] idx = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			idx[i] = i;
+		}
+		Arrays.sort(idx, (a, b) -> Long.compare(order[a], order[b]));
+
+		R[] rows = codec.newArray(n);
+		CharBuf line = new CharBuf(64);
+		CharBuf field = new CharBuf(64);
+		for (int i = 0; i < n; i++) {
+			char[] c = lines[idx[i]];
+			line.reset();
+			line.append(c, 0, c.length);
+			rows[i] = codec.parse(line, field, olen, idxmap, d);
+		}
+		return rows;
+	}
+
+	/**
+	 * 读取随机窗口, 直到取到target行或用完所有窗口(Read random windows until target lines are taken or every window is used)
+	 */
+	private static void seek(String file, long dataStart, long windows, long target, long want, Random wrnd, CsvDialect d, Reservoir res, CharBuf buf)
+			throws IOException {
+		try (FileChannel fc = FileChannel.open(new File(file).toPath())) {
+			// 各窗口共用一个通道, 读取器关闭时不关闭它(The windows share one channel, closing a reader leaves it open)
+			ReadableByteChannel ch = new ReadableByteChannel() {
+				public int read(ByteBuffer dst) throws IOException {
+					return fc.read(dst);
+				}
+
+				public boolean isOpen() {
+					return fc.isOpen();
+				}
+
+				public void close() {
+				}
+			};
+			char[][] taken = new char[PER_WINDOW][];
+			int[] takenNo = new int[PER_WINDOW];
+			Set<Long> used = new HashSet<>();
+			long[] picked = pick(windows, want, wrnd);
+			for (;;) {
+				for (long w : picked) {
+					used.add(w);
+					long start = dataStart + w * WINDOW;
+					fc.position(start);
+					int n = 0;
+					try (ChannelReader r = new ChannelReader(ch, start, WINDOW, start != dataStart ? 0 : -1, WINDOW)) {
+						r.dialect(d);
+						CharBuf line = buf;
+						while ((line = r.readLine(line)) != null) {
+							// 窗口内的蓄水池抽样(Reservoir sampling inside the window)
+							int slot = n < PER_WINDOW ? n : wrnd.nextInt(n + 1);
+							if (slot < PER_WINDOW) {
+								taken[slot] = Arrays.copyOf(line.value, line.count);
+								takenNo[slot] = n;
+							}
+							n++;
+						}
+					}
+					for (int i = 0, m = Math.min(n, PER_WINDOW); i < m; i++) {
+						res.offer(taken[i], (w << 20) | takenNo[i]);
+					}
+				}
+				if (res.seen >= target || used.size() >= windows) {
+					break;
+				}
+				// 窗口可能落在长行中间而没有行, 按已取的行追加窗口(Windows inside long lines yield nothing, add windows by the
+				// lines taken so far)
+				double per = (double) Math.max(1, res.seen) / used.size();
+				picked = pickMore(windows, (long) Math.ceil((target - res.seen) / per), used, wrnd);
+			}
+		}
+	}
+
+	private static void readAll(String file, long dataStart, CsvDialect d, Reservoir res, CharBuf buf) throws IOException {
+		try (ChannelReader r = new ChannelReader(file, dataStart, Long.MAX_VALUE, -1)) {
+			r.dialect(d);
+			CharBuf line = buf;
+			long no = 0;
+			while ((line = r.readLine(line)) != null) {
+				res.offer(line, no++);
+			}
+		}
+	}
+
+	/**
+	 * 蓄水池抽样, 保存行及其文件顺序(Reservoir sampling, keeping the lines and their file order)
+	 */
+	private static final class Reservoir {
+		final char[][] lines;
+		final long[] order;
+		final Random rnd;
+		long seen;
+
+		Reservoir(int k, Random rnd) {
+			this.lines = new char[k][];
+			this.order = new long[k];
+			this.rnd = rnd;
+		}
+
+		void offer(CharBuf line, long key) {
+			int slot = slot();
+			if (slot >= 0) {
+				lines[slot] = Arrays.copyOf(line.value, line.count);
+				order[slot] = key;
+			}
+		}
+
+		void offer(char[] line, long key) {
+			int slot = slot();
+			if (slot >= 0) {
+				lines[slot] = line;
+				order[slot] = key;
+			}
+		}
+
+		/**
+		 * @return 保留的位置, 不保留为-1(The slot to keep the line in, -1 to drop it)
+		 */
+		private int slot() {
+			int k = lines.length;
+			int slot = seen < k ? (int) seen : (int) nextLong(rnd, seen + 1);
+			seen++;
+			return slot < k ? slot : -1;
+		}
+	}
+
+	/**
+	 * 从0..n-1中未使用的数里不重复地选取至多m个, 升序(Pick up to m distinct unused numbers out of 0..n-1, ascending)
+	 */
+	static long[] pickMore(long n, long m, Set<Long> used, Random rnd) {
+		long free = n - used.size();
+		if (m * 2 >= free) {
+			// 未使用的不多, 列出后选取(Few are left, list them and pick)
+			long[] rest = new long[(int) free];
+			int c = 0;
+			for (long i = 0; i < n; i++) {
+				if (!used.contains(i)) {
+					rest[c++] = i;
+				}
+			}
+			long[] at = pick(free, m, rnd);
+			for (int i = 0; i < at.length; i++) {
+				at[i] = rest[(int) at[i]];
+			}
+			return at;
+		}
+		// 未使用的过半, 拒绝采样(Most are unused, rejection sampling)
+		Set<Long> s = new HashSet<>();
+		while (s.size() < m) {
+			long t = nextLong(rnd, n);
+			if (!used.contains(t)) {
+				s.add(t);
+			}
+		}
+		long[] r = new long[s.size()];
+		int i = 0;
+		for (long v : s) {
+			r[i++] = v;
+		}
+		Arrays.sort(r);
+		return r;
+	}
+
+	/**
+	 * 从0..n-1中不重复地选取至多m个, 升序(Pick up to m distinct numbers out of 0..n-1, ascending)
+	 */
+	static long[] pick(long n, long m, Random rnd) {
+		if (m >= n) {
+			long[] all = new long[(int) n];
+			for (int i = 0; i < all.length; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		// Floyd算法(Floyd's algorithm)
+		Set<Long> s = new HashSet<>();
+		for (long j = n - m; j < n; j++) {
+			long t = nextLong(rnd, j + 1);
+			s.add(s.contains(t) ? j : t);
+		}
+		long[] r = new long[s.size()];
+		int i = 0;
+		for (long v : s) {
+			r[i++] = v;
+		}
+		Arrays.sort(r);
+		return r;
+	}
+
+	private static long nextLong(Random rnd, long bound) {
+		if (bound <= Integer.MAX_VALUE) {
+			return rnd.nextInt((int) bound);
+		}
+		return (rnd.nextLong() >>> 1) % bound;
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.fastj.csv;
+
+/**
+ * 逐行解析并按到达顺序保存结果的处理线程(Parse task keeping one result per line in arrival order)
+ *
+ * @param <R>
+ *            行类型(Row type)
+ */
+abstract class RowTask<R> extends LineTask {
+
+	RowChunks<R> rows;
+
+	@Override
+	void expect(int rows) {
+		this.rows = new RowChunks<>(newArray(RowChunks.firstSize(rows)));
+	}
+
+	@Override
+	void handle(CharBuf line) {
+		rows.add(parse(line));
+	}
+
+	abstract R parse(CharBuf line);
+
+	abstract R[] newArray(int size);
+
+}
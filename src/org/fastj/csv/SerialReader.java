@@ -0,0 +1,123 @@
+package org.fastj.csv;
+
+import static org.fastj.csv.Util.createIdxMap;
+import static org.fastj.csv.Util.createVidx;
+import static org.fastj.csv.Util.parseCSVLine;
+import static org.fastj.csv.Util.parseSimple;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * 单线程读取: 在调用线程中读字节、切行、解析, 不启动线程, 每行不加锁(Single-thread read: bytes are read, split into lines and
+ * parsed on the calling thread, no threads started and no lock per line)
+ *
+ * <p>
+ * 用于已经并行的任务内部, 如每个分区一个文件(For use inside already parallel tasks, one file per partition say).
+ */
+final class SerialReader implements Closeable {
+
+	/** 读缓冲区大小(Read buffer size) */
+	static final int BUFFER = 256 * 1024;
+
+	private final ChannelReader reader;
+	private final CsvDialect dialect;
+	final String[] header;
+	private final int[] idxmap;
+	private final int olen;
+
+	SerialReader(String file, Charset charset, int headerLine, String[] cols, CsvDialect dialect) throws IOException {
+		this(FileChannel.open(new File(file).toPath()), charset, headerLine, cols, dialect);
+	}
+
+	SerialReader(ReadableByteChannel ch, Charset charset, int headerLine, String[] cols, CsvDialect dialect) throws IOException {
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		this.reader = new ChannelReader(ch, -1, charset, BUFFER).dialect(this.dialect);
+		try {
+			CharBuf hl = null;
+			int headline = headerLine;
+			while (headline-- >= 0) {
+				hl = reader.nextLine(hl);
+			}
+			String[] h = parseSimple(hl, this.dialect); // throw NPE if headline < 0
+			CharBuf.POOL.release(hl);
+			int[] vidx = createVidx(h, cols);
+			this.idxmap = createIdxMap(h.length, vidx);
+			this.olen = vidx.length;
+			this.header = cols != null ? cols : h;
+		} catch (IOException | RuntimeException e) {
+			reader.close();
+			throw e;
+		}
+	}
+
+	<R> RowChunks<R> read(RowCodec<R> codec, RowChunks<R> rows) throws IOException {
+		CharBuf line = CharBuf.POOL.get();
+		CharBuf field = CharBuf.POOL.get();
+		CharBuf buf = line;
+		try {
+			while ((line = reader.nextLine(line)) != null) {
+				rows.add(codec.parse(line, field, olen, idxmap, dialect));
+			}
+		} finally {
+			CharBuf.POOL.release(buf);
+			CharBuf.POOL.release(field);
+		}
+		return rows;
+	}
+
+	/**
+	 * 字符串行: 可按Latin-1处理的行直接由字节创建字段, 其它行先解码(String rows: lines that map to Latin-1 build their fields
+	 * straight from the bytes, other lines are decoded first)
+	 */
+	RowChunks<String[]> readStrings(RowChunks<String[]> rows) throws IOException {
+		ByteBuf bfield = ByteBuf.POOL.get();
+		CharBuf line = CharBuf.POOL.get();
+		CharBuf field = CharBuf.POOL.get();
+		try {
+			ByteBuf b;
+			while ((b = reader.nextBytes()) != null) {
+				if (reader.latin1Line()) {
+					rows.add(parseCSVLine(b, bfield, olen, idxmap, dialect));
+				} else {
+					line = reader.decode(b, line);
+					rows.add(parseCSVLine(line, field, olen, idxmap, dialect));
+				}
+			}
+		} finally {
+			ByteBuf.POOL.release(bfield);
+			CharBuf.POOL.release(line);
+			CharBuf.POOL.release(field);
+		}
+		return rows;
+	}
+
+	String[][] readCsv(boolean withHeader) throws IOException {
+		RowChunks<String[]> rows = new RowChunks<>(new String[RowChunks.firstSize(estimate()) + (withHeader ? 1 : 0)][]);
+		if (withHeader) {
+			rows.add(header);
+		}
+		return readStrings(rows).toArray();
+	}
+
+	double[][] readMatrix() throws IOException {
+		return read(RowCodec.MATRIX, new RowChunks<>(new double[RowChunks.firstSize(estimate())][])).toArray();
+	}
+
+	/**
+	 * 本地文件按样本估计行数, 其它为-1(Estimated rows for local files, -1 otherwise)
+	 */
+	private int estimate() {
+		return Util.estimateRows(reader);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -2,15 +2,14 @@ package org.fastj.csv;
 
 import static org.fastj.csv.Util.createIdxMap;
 import static org.fastj.csv.Util.createVidx;
+import static org.fastj.csv.Util.estimateRows;
+import static org.fastj.csv.Util.openBlocks;
 import static org.fastj.csv.Util.parseCSVLine;
 import static org.fastj.csv.Util.parseCSVMatrix;
 import static org.fastj.csv.Util.parseSimple;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.InterruptedIOException;
 import java.util.concurrent.CountDownLatch;
 
 public class SimpleMTReader {
@@ -20,98 +19,122 @@ public class SimpleMTReader {
 	int olen;
 	int[] vidx;
 	int[] idxmap;
+	final CsvDialect dialect;
+	final ReadJob job = new ReadJob();
 
-	SimpleMTReader(String file, int rsize, int headline, String[] rcols) throws IOException {
-
-		long fsize = Files.size(new File(file).toPath());
-		long blockSize = fsize / rsize + 1;
+	SimpleMTReader(String file, int rsize, int headline, String[] rcols, CsvDialect dialect) throws IOException {
+		readers = openBlocks(file, rsize);
+		this.dialect = dialect != null ? dialect : CsvDialect.DEFAULT;
+		try {
+			for (ChannelReader r : readers) {
+				r.dialect(this.dialect);
+			}
 
-		readers = new ChannelReader[rsize];
+			ChannelReader fhr = readers[0];
+			CharBuf hl = null;
+			while (headline-- >= 0) {
+				hl = fhr.readLine(hl);
+			}
 
-		for (int i = 0; i < rsize; i++) {
-			readers[i] = new ChannelReader(file, blockSize * i, blockSize, i != 0 ? 0 : -1);
+			header = parseSimple(hl, this.dialect); // throw NPE if headline < 0
+			CharBuf.POOL.release(hl);
+			vidx = createVidx(header, rcols);
+			idxmap = createIdxMap(header.length, vidx);
+			olen = vidx.length;
+			header = rcols != null ? rcols : header;
+		} catch (Throwable e) {
+			// 列头读取失败或未知列时不泄漏通道(No channel leaks on a header read failure or an unknown column)
+			for (ChannelReader r : readers) {
+				try {
+					r.close();
+				} catch (IOException ce) {
+					// ignore
+				}
+			}
+			throw e;
 		}
+		job.onStop(() -> {
+			for (ChannelReader r : readers) {
+				r.abort();
+			}
+		});
+	}
 
-		ChannelReader fhr = readers[0];
-		CharBuf hl = null;
-		while (headline-- >= 0) {
-			hl = fhr.readLine(hl);
+	private void await(CountDownLatch cdl) throws IOException {
+		try {
+			cdl.await();
+		} catch (InterruptedException e) {
+			job.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Read interrupted");
 		}
-
-		header = parseSimple(hl); // throw NPE if headline < 0
-		CharBuf.POOL.release(hl);
-		vidx = createVidx(header, rcols);
-		idxmap = createIdxMap(header.length, vidx);
-		olen = vidx.length;
-		header = rcols != null ? rcols : header;
+		job.check();
 	}
 
-	double[][] get() {
+	double[][] get() throws IOException {
 		final CountDownLatch cdl = new CountDownLatch(readers.length);
 
-		DNode[] tmpRlts = new DNode[readers.length];
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		RowChunks<double[]>[] tmpRlts = new RowChunks[readers.length];
 		for (int i = 0; i < readers.length; i++) {
 			final int pc = i;
 			Util.executor.execute(() -> {
 				try {
-					double[][] data = readMatrix(readers[pc]);
-					tmpRlts[pc] = new DNode(data);
+					tmpRlts[pc] = readMatrix(readers[pc]);
 				} finally {
 					cdl.countDown();
 				}
 			});
 		}
 
-		try {
-			cdl.await();
-		} catch (InterruptedException e) {
-			return null;
+		await(cdl);
+
+		if (tmpRlts.length == 1) {
+			return tmpRlts[0].toArray();
 		}
 
 		int total = 0;
 
-		for (DNode pn : tmpRlts) {
-			total += pn.data.length;
+		for (RowChunks<double[]> rc : tmpRlts) {
+			total += rc.size();
 		}
 
 		double[][] data = new double[total][];
 
 		int pc = 0;
-		for (DNode pn : tmpRlts) {
-			for (double[] row : pn.data) {
-				data[pc++] = row;
-			}
+		for (RowChunks<double[]> rc : tmpRlts) {
+			pc += rc.copyTo(data, pc);
 		}
 
 		return data;
 	}
 
-	String[][] get(boolean withHeader) {
+	String[][] get(boolean withHeader) throws IOException {
 		final CountDownLatch cdl = new CountDownLatch(readers.length);
 
-		PNode[] tmpRlts = new PNode[readers.length];
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		RowChunks<String[]>[] tmpRlts = new RowChunks[readers.length];
 		for (int i = 0; i < readers.length; i++) {
 			final int pc = i;
 			Util.executor.execute(() -> {
 				try {
-					String[][] data = readCsv(readers[pc]);
-					tmpRlts[pc] = new PNode(data);
+					tmpRlts[pc] = readCsv(readers[pc]);
 				} finally {
 					cdl.countDown();
 				}
 			});
 		}
 
-		try {
-			cdl.await();
-		} catch (InterruptedException e) {
-			return null;
+		await(cdl);
+
+		if (tmpRlts.length == 1 && !withHeader) {
+			return tmpRlts[0].toArray();
 		}
 
 		int total = withHeader ? 1 : 0;
 
-		for (PNode pn : tmpRlts) {
-			total += pn.data.length;
+		for (RowChunks<String[]> rc : tmpRlts) {
+			total += rc.size();
 		}
 
 		String[][] data = new String[total][];
@@ -121,10 +144,8 @@ public class SimpleMTReader {
 			data[0] = header;
 			pc = 1;
 		}
-		for (PNode pn : tmpRlts) {
-			for (String[] row : pn.data) {
-				data[pc++] = row;
-			}
+		for (RowChunks<String[]> rc : tmpRlts) {
+			pc += rc.copyTo(data, pc);
 		}
 
 		return data;
@@ -134,60 +155,42 @@ public class SimpleMTReader {
 		return header;
 	}
 
-	String[][] readCsv(ChannelReader reader) {
+	RowChunks<String[]> readCsv(ChannelReader reader) {
 		CharBuf buf = CharBuf.POOL.get();
 		CharBuf field = CharBuf.POOL.get();
-		List<String[]> result = new LinkedList<>();
+		RowChunks<String[]> result = new RowChunks<>(new String[RowChunks.firstSize(estimateRows(reader))][]);
 		try (ChannelReader r = reader) {
 			CharBuf line = buf;
-			while ((line = r.readLine(line)) != null) {
-				String[] row = parseCSVLine(line, field, olen, idxmap);
+			while (!job.stopped() && (line = r.readLine(line)) != null) {
+				String[] row = parseCSVLine(line, field, olen, idxmap, dialect);
 				result.add(row);
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
+		} catch (Throwable e) {
+			job.fail(e);
 		} finally {
 			CharBuf.POOL.release(buf);
 			CharBuf.POOL.release(field);
 		}
 
-		String[][] data = result.toArray(new String[result.size()][]);
-		return data;
+		return result;
 	}
 
-	double[][] readMatrix(ChannelReader reader) {
+	RowChunks<double[]> readMatrix(ChannelReader reader) {
 		CharBuf buf = CharBuf.POOL.get();
-		List<double[]> result = new LinkedList<>();
+		RowChunks<double[]> result = new RowChunks<>(new double[RowChunks.firstSize(estimateRows(reader))][]);
 		try (ChannelReader r = reader) {
 			CharBuf line = buf;
-			while ((line = r.readLine(line)) != null) {
-				double[] row = parseCSVMatrix(line, olen, idxmap);
+			while (!job.stopped() && (line = r.readLine(line)) != null) {
+				double[] row = parseCSVMatrix(line, olen, idxmap, dialect);
 				result.add(row);
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
+		} catch (Throwable e) {
+			job.fail(e);
 		} finally {
 			CharBuf.POOL.release(buf);
 		}
 
-		double[][] data = result.toArray(new double[result.size()][]);
-		return data;
-	}
-
-	class PNode {
-		String[][] data;
-
-		PNode(String[][] data) {
-			this.data = data;
-		}
-	}
-
-	class DNode {
-		double[][] data;
-
-		DNode(double[][] data) {
-			this.data = data;
-		}
+		return result;
 	}
 
 }
@@ -0,0 +1,134 @@
+package org.fastj.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件采样推断结果(Dialect, header and column types inferred from a file sample)
+ * 
+ * @see CsvSniffer
+ */
+public final class SniffResult {
+
+	final CsvDialect dialect;
+	final String lineTerminator;
+	final boolean quoted;
+	final int headerLine;
+	final boolean hasHeader;
+	final String[] header;
+	final ColumnType[] types;
+	final boolean[] nullable;
+	final int sampleRows;
+
+	SniffResult(CsvDialect dialect, String lineTerminator, boolean quoted, int headerLine, boolean hasHeader, String[] header, ColumnType[] types,
+			boolean[] nullable, int sampleRows) {
+		this.dialect = dialect;
+		this.lineTerminator = lineTerminator;
+		this.quoted = quoted;
+		this.headerLine = headerLine;
+		this.hasHeader = hasHeader;
+		this.header = header;
+		this.types = types;
+		this.nullable = nullable;
+		this.sampleRows = sampleRows;
+	}
+
+	public CsvDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * @return "\n", "\r\n" 或 "\r"
+	 */
+	public String getLineTerminator() {
+		return lineTerminator;
+	}
+
+	/**
+	 * 样本中是否出现引号字段(Did any sampled field use quotes?)
+	 */
+	public boolean isQuoted() {
+		return quoted;
+	}
+
+	/**
+	 * 列头所在行数, 不计注释行, 可直接作为headerLine参数(Line-number of table heads, comment lines excluded, usable as headerLine)
+	 */
+	public int getHeaderLine() {
+		return headerLine;
+	}
+
+	/**
+	 * 列头行是否像列名而非数据(Does the header row look like names rather than data?); 否则getHeaderLine为第一行数据(Otherwise
+	 * getHeaderLine is the first data row)
+	 */
+	public boolean hasHeader() {
+		return hasHeader;
+	}
+
+	/**
+	 * 列名; 无列头时为按列号生成的c0, c1, ...(Column names; c0, c1, ... by position when there is no header)
+	 */
+	public String[] getHeader() {
+		return header;
+	}
+
+	public ColumnType[] getTypes() {
+		return types;
+	}
+
+	public ColumnType getType(String col) {
+		for (int i = 0; i < header.length; i++) {
+			if (header[i].equals(col)) {
+				return types[i];
+			}
+		}
+		throw new IllegalArgumentException(col + " not found");
+	}
+
+	/**
+	 * 样本中是否有空值(Did the column contain empty fields in the sample?)
+	 */
+	public boolean isNullable(int col) {
+		return nullable[col];
+	}
+
+	public int getSampleRows() {
+		return sampleRows;
+	}
+
+	/**
+	 * 可走readMatrix快速路径的列: 数值且无空值(Columns for the readMatrix path: numeric and never empty)
+	 */
+	public String[] numericColumns() {
+		List<String> cols = new ArrayList<>();
+		for (int i = 0; i < header.length; i++) {
+			if (types[i].isNumeric() && !nullable[i]) {
+				cols.add(header[i]);
+			}
+		}
+		return cols.toArray(new String[cols.size()]);
+	}
+
+	/**
+	 * 需要走字符串路径的列(Columns that need the String path)
+	 */
+	public String[] stringColumns() {
+		List<String> cols = new ArrayList<>();
+		for (int i = 0; i < header.length; i++) {
+			if (!types[i].isNumeric() || nullable[i]) {
+				cols.add(header[i]);
+			}
+		}
+		return cols.toArray(new String[cols.size()]);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("SniffResult[").append(dialect).append(", headerLine=").append(headerLine).append(", columns=");
+		for (int i = 0; i < header.length; i++) {
+			sb.append(i == 0 ? "" : ", ").append(header[i]).append(':').append(types[i]).append(nullable[i] ? "?" : "");
+		}
+		return sb.append(']').toString();
+	}
+}
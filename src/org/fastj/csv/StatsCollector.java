@@ -0,0 +1,116 @@
+package org.fastj.csv;
+
+import java.util.Arrays;
+
+/**
+ * 处理线程内的列统计, 每个字段不创建对象(Per-task column statistics, no allocation per field)
+ */
+final class StatsCollector {
+
+	final int len;
+	final CsvDialect dialect;
+	long rows;
+	final long[] nulls;
+	final long[] empties;
+	final long[] numerics;
+	final double[] min;
+	final double[] max;
+	final double[] sum;
+	final int[] minLength;
+	final int[] maxLength;
+	final HyperLogLog[] hll;
+
+	StatsCollector(int len, CsvDialect dialect) {
+		this.len = len;
+		this.dialect = dialect;
+		nulls = new long[len];
+		empties = new long[len];
+		numerics = new long[len];
+		min = new double[len];
+		max = new double[len];
+		sum = new double[len];
+		minLength = new int[len];
+		maxLength = new int[len];
+		hll = new HyperLogLog[len];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		Arrays.fill(minLength, Integer.MAX_VALUE);
+		for (int j = 0; j < len; j++) {
+			hll[j] = new HyperLogLog();
+		}
+	}
+
+	/**
+	 * @param starts
+	 *            Util.scanFields的结果(Field spans from Util.scanFields)
+	 */
+	void add(char[] b, int[] starts, int[] ends) {
+		rows++;
+		final char quote = dialect.quote;
+		for (int j = 0; j < len; j++) {
+			int s = starts[j], e = ends[j];
+			if (s < 0) {
+				nulls[j]++;
+				continue;
+			}
+			int l = e - s;
+			if (l < minLength[j]) {
+				minLength[j] = l;
+			}
+			if (l > maxLength[j]) {
+				maxLength[j] = l;
+			}
+			while (s < e && b[s] <= ' ') {
+				s++;
+			}
+			while (e > s && b[e - 1] <= ' ') {
+				e--;
+			}
+			if (e - s >= 2 && b[s] == quote && b[e - 1] == quote) {
+				s++;
+				e--;
+			}
+			if (s == e) {
+				empties[j]++;
+				continue;
+			}
+			hll[j].add(HyperLogLog.hash(b, s, e));
+			if (Util.isNumber(b, s, e)) {
+				double v = Util.parseDouble(b, s, e, quote);
+				numerics[j]++;
+				sum[j] += v;
+				if (v < min[j]) {
+					min[j] = v;
+				}
+				if (v > max[j]) {
+					max[j] = v;
+				}
+			}
+		}
+	}
+
+	void merge(StatsCollector o) {
+		rows += o.rows;
+		for (int j = 0; j < len; j++) {
+			nulls[j] += o.nulls[j];
+			empties[j] += o.empties[j];
+			numerics[j] += o.numerics[j];
+			sum[j] += o.sum[j];
+			min[j] = Math.min(min[j], o.min[j]);
+			max[j] = Math.max(max[j], o.max[j]);
+			minLength[j] = Math.min(minLength[j], o.minLength[j]);
+			maxLength[j] = Math.max(maxLength[j], o.maxLength[j]);
+			hll[j].merge(o.hll[j]);
+		}
+	}
+
+	ColumnStats[] toStats(String[] names) {
+		ColumnStats[] stats = new ColumnStats[len];
+		for (int j = 0; j < len; j++) {
+			int minl = minLength[j] == Integer.MAX_VALUE ? 0 : minLength[j];
+			stats[j] = new ColumnStats(names[j], rows, nulls[j], empties[j], numerics[j], min[j], max[j], sum[j], minl, maxLength[j], hll[j].estimate());
+		}
+		return stats;
+	}
+
+}
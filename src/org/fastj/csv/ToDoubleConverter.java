@@ -0,0 +1,13 @@
+package org.fastj.csv;
+
+/**
+ * 字段到double的转换, 不装箱(Field to double conversion, no boxing)
+ *
+ * @see ColumnConverter
+ */
+@FunctionalInterface
+public interface ToDoubleConverter {
+
+	double convert(FieldView field);
+
+}
@@ -0,0 +1,13 @@
+package org.fastj.csv;
+
+/**
+ * 字段到long的转换, 不装箱(Field to long conversion, no boxing)
+ *
+ * @see ColumnConverter
+ */
+@FunctionalInterface
+public interface ToLongConverter {
+
+	long convert(FieldView field);
+
+}
@@ -0,0 +1,85 @@
+package org.fastj.csv;
+
+/**
+ * 按列保存的转换结果: asDouble列为double[], asLong列为long[], 其它为Object[](Converted values by column: double[] for
+ * asDouble columns, long[] for asLong columns, Object[] otherwise)
+ *
+ * <p>
+ * 行按文件顺序(Rows are in file order).
+ */
+public final class TypedColumns {
+
+	private final String[] header;
+	private final Object[] columns;
+	private final int rows;
+
+	TypedColumns(String[] header, Object[] columns, int rows) {
+		this.header = header;
+		this.columns = columns;
+		this.rows = rows;
+	}
+
+	public String[] getHeader() {
+		return header.clone();
+	}
+
+	/**
+	 * 行数(Number of rows)
+	 */
+	public int size() {
+		return rows;
+	}
+
+	/**
+	 * 列号, 不存在为-1(Column index, -1 if absent)
+	 */
+	public int indexOf(String col) {
+		for (int i = 0; i < header.length; i++) {
+			if (header[i].equals(col)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public double[] getDoubles(int col) {
+		return column(col, double[].class);
+	}
+
+	public double[] getDoubles(String col) {
+		return getDoubles(index(col));
+	}
+
+	public long[] getLongs(int col) {
+		return column(col, long[].class);
+	}
+
+	public long[] getLongs(String col) {
+		return getLongs(index(col));
+	}
+
+	public Object[] getObjects(int col) {
+		return column(col, Object[].class);
+	}
+
+	public Object[] getObjects(String col) {
+		return getObjects(index(col));
+	}
+
+	private int index(String col) {
+		int i = indexOf(col);
+		if (i < 0) {
+			throw new IllegalArgumentException("Invalid column: " + col);
+		}
+		return i;
+	}
+
+	private <A> A column(int col, Class<A> type) {
+		Object c = columns[col];
+		if (!type.isInstance(c)) {
+			throw new IllegalArgumentException("Column " + header[col] + " is not " + type.getComponentType());
+		}
+		return type.cast(c);
+	}
+
+}
@@ -1,12 +1,24 @@
 package org.fastj.csv;
 
-import java.util.LinkedList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
 public class Util {
 
@@ -21,6 +33,108 @@ public class Util {
 		}
 	});
 
+	/**
+	 * 按读线程分组的执行器, null时全部使用executor(Per reader group executors, null to run everything on executor)
+	 */
+	private static volatile ExecutorService[] groups;
+
+	/**
+	 * 第reader个读线程及其处理线程使用的执行器(Executor for reader number reader and its parse tasks)
+	 */
+	static Executor executor(int reader) {
+		ExecutorService[] g = groups;
+		return g == null ? executor : g[reader % g.length];
+	}
+
+	/**
+	 * 默认的分组线程: 守护线程, 名为csv-g组号-序号(Default group threads: daemons named csv-g&lt;group&gt;-&lt;n&gt;)
+	 */
+	static ThreadFactory groupThreads(int group) {
+		AtomicLong idx = new AtomicLong();
+		return r -> {
+			Thread t = new Thread(r);
+			t.setDaemon(true);
+			t.setName("csv-g" + group + "-" + idx.incrementAndGet());
+			return t;
+		};
+	}
+
+	/**
+	 * 替换分组执行器; 进行中的读取仍在使用旧的执行器, 所以不关闭它们, 其空闲线程超时后退出(Replace the group executors; reads in
+	 * progress still use the old ones, so they are not shut down, their idle threads time out)
+	 */
+	static synchronized void groups(int count, IntFunction<ThreadFactory> factory) {
+		ExecutorService[] g = null;
+		if (count > 0) {
+			g = new ExecutorService[count];
+			for (int i = 0; i < count; i++) {
+				ThreadFactory tf = factory.apply(i);
+				if (tf == null) {
+					throw new NullPointerException("No thread factory for group " + i);
+				}
+				g[i] = Executors.newCachedThreadPool(tf);
+			}
+		}
+		groups = g;
+	}
+
+	/**
+	 * 读取超时计时器(Timer for read deadlines)
+	 */
+	static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r);
+		t.setDaemon(true);
+		t.setName("csv-timer");
+		return t;
+	});
+
+	/**
+	 * 按读线程数将文件分块(Split a local file into one block reader per read-thread)
+	 */
+	static ChannelReader[] openBlocks(String file, int rsize) throws IOException {
+		return openBlocks(file, rsize, null);
+	}
+
+	/**
+	 * @param buffer
+	 *            读缓冲区, null为默认值(Read buffer, null for the default)
+	 */
+	static ChannelReader[] openBlocks(String file, int rsize, ReadBuffer buffer) throws IOException {
+		ReadBuffer rb = buffer != null ? buffer : ChannelReader.defaults;
+		long fsize = Files.size(new File(file).toPath());
+		long blockSize = fsize / rsize + 1;
+
+		ChannelReader[] readers = new ChannelReader[rsize];
+		int i = 0;
+		try {
+			for (; i < rsize; i++) {
+				readers[i] = new ChannelReader(file, blockSize * i, blockSize, i != 0 ? 0 : -1, StandardCharsets.UTF_8, rb);
+			}
+		} catch (IOException | RuntimeException e) {
+			// 关闭已打开的块(Close the blocks already opened)
+			while (--i >= 0) {
+				try {
+					readers[i].close();
+				} catch (IOException ce) {
+					// ignore
+				}
+			}
+			throw e;
+		}
+		return readers;
+	}
+
+	/**
+	 * 估计读取器的行数, 未知或出错时为-1(Estimated rows of a reader, -1 if unknown or on error)
+	 */
+	static int estimateRows(ChannelReader reader) {
+		try {
+			return reader.estimateRows();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
 	public static String[] parseCSVLine(CharBuf line, CharBuf fieldBuf, int len, int[] cols) {
 
 		String[] rlt = new String[len];
@@ -145,43 +259,650 @@ public class Util {
 		return field.toStringAndReset();
 	}
 
-	public static String[] parseSimple(CharBuf line) {
-		List<String> l = new LinkedList<>();
+	/**
+	 * 按方言切分行, 默认方言走逗号快速路径(Dialect-aware split, the default dialect takes the comma loop)
+	 */
+	public static String[] parseCSVLine(CharBuf line, CharBuf fieldBuf, int len, int[] cols, CsvDialect d) {
+		if (d.isDefault()) {
+			return parseCSVLine(line, fieldBuf, len, cols);
+		}
+
+		final char delim = d.delimiter;
+		final char quote = d.quote;
+		final char esc = d.escape;
+
+		String[] rlt = new String[len];
+		char[] buf = line.value;
+		int buflen = line.count;
+		int fcnt = -1;
+		int setc = 0;
+		int nc = 0;
+
+		for (; nc < buflen && setc < len;) {
+			byte bit = 0x00;
+			boolean escaped = false;
+			char c = 0;
+			int i = nc;
+			for (; i < buflen; i++) {
+				c = buf[i];
+				if (escaped) {
+					escaped = false;
+					continue;
+				}
+				if (c == quote) {
+					bit ^= 0x01;
+					continue;
+				}
+				if (c == esc && bit != 0) {
+					escaped = true;
+					continue;
+				}
+				if (c == delim && bit == 0) {
+					break;
+				}
+			}
+
+			fcnt++;
+			int idx = cols[fcnt];
+			if (idx >= 0) {
+				rlt[idx] = getCSVFieldString(fieldBuf, buf, nc, i - 1, d);
+				setc++;
+			}
+
+			nc = ++i;
+		}
+
+		if (setc == len - 1) {
+			int idx = cols[++fcnt];
+			rlt[idx] = "";
+		}
+
+		return rlt;
+	}
+
+	/**
+	 * 按方言读取数值行, 默认方言走逗号快速路径(Dialect-aware matrix row, the default dialect takes the comma loop)
+	 */
+	public static double[] parseCSVMatrix(CharBuf line, int len, int[] cols, CsvDialect d) {
+		if (d.isDefault()) {
+			return parseCSVMatrix(line, len, cols);
+		}
+
+		final char delim = d.delimiter;
+		final char quote = d.quote;
+		final char esc = d.escape;
+
+		double[] rlt = new double[len];
+		char[] buf = line.value;
+		int buflen = line.count;
+		int fcnt = -1;
+		int setc = 0;
+		int nc = 0;
+
+		for (; nc < buflen && setc < len;) {
+			byte bit = 0x00;
+			boolean escaped = false;
+			char c = 0;
+			int i = nc;
+			for (; i < buflen; i++) {
+				c = buf[i];
+				if (escaped) {
+					escaped = false;
+					continue;
+				}
+				if (c == quote) {
+					bit ^= 0x01;
+					continue;
+				}
+				if (c == esc && bit != 0) {
+					escaped = true;
+					continue;
+				}
+				if (c == delim && bit == 0) {
+					break;
+				}
+			}
+
+			fcnt++;
+			int idx = cols[fcnt];
+			if (idx >= 0) {
+				int s = nc, e = i - 1;
+				if (s < e && buf[s] == quote && buf[e] == quote) {
+					s++;
+					e--;
+				}
+				rlt[idx] = Double.parseDouble(new String(buf, s, e - s + 1));
+				setc++;
+			}
+
+			nc = ++i;
+		}
+
+		if (setc == len - 1) {
+			int idx = cols[++fcnt];
+			rlt[idx] = 0.0;
+		}
+
+		return rlt;
+	}
+
+	private static String getCSVFieldString(CharBuf field, char[] value, int start, int end, CsvDialect d) {
+		final char quote = d.quote;
+		final char esc = d.escape;
+
+		if (d.trim) {
+			while (start <= end && isBlank(value[start], d)) {
+				start++;
+			}
+			while (end >= start && isBlank(value[end], d)) {
+				end--;
+			}
+		}
+
+		if (start > end) {
+			return "";
+		}
+
+		if (value[start] != quote) {
+			return new String(value, start, end - start + 1);
+		} else {
+			start++;
+			if (end >= start && value[end] == quote) {
+				end--;
+			}
+		}
+
+		field.reset();
+		char c = 0;
+		int copyStart = start;
+		int i = start;
+		for (; i <= end;) {
+			c = value[i];
+			if (c == esc && i < end) {
+				// 转义符与引号相同时保留引号本身(Doubled quote keeps the quote itself)
+				field.append(value, copyStart, i - copyStart);
+				copyStart = i + 1;
+				i += 2;
+			} else {
+				i++;
+			}
+		}
+
+		if (end + 1 > copyStart) {
+			field.append(value, copyStart, end + 1 - copyStart);
+		}
+
+		return field.toStringAndReset();
+	}
+
+	/**
+	 * 按方言切分Latin-1字节行, 字段直接由字节创建String, 省去转为char和JDK9+紧凑String的压缩(Split a line of Latin-1 bytes on the
+	 * dialect, fields become Strings straight from the bytes, skipping the widening to chars and the compress pass of JDK 9+
+	 * compact Strings)
+	 * 
+	 * @see #parseCSVLine(CharBuf, CharBuf, int, int[], CsvDialect)
+	 */
+	static String[] parseCSVLine(ByteBuf line, ByteBuf fieldBuf, int len, int[] cols, CsvDialect d) {
+		final byte delim = (byte) d.delimiter;
+		final byte quote = (byte) d.quote;
+		final byte esc = (byte) d.escape;
+
+		String[] rlt = new String[len];
+		byte[] buf = line.value;
+		int buflen = line.count;
+		int fcnt = -1;
+		int setc = 0;
+		int nc = 0;
+
+		for (; nc < buflen && setc < len;) {
+			byte bit = 0x00;
+			boolean escaped = false;
+			byte c = 0;
+			int i = nc;
+			for (; i < buflen; i++) {
+				c = buf[i];
+				if (escaped) {
+					escaped = false;
+					continue;
+				}
+				if (c == quote) {
+					bit ^= 0x01;
+					continue;
+				}
+				if (c == esc && bit != 0) {
+					escaped = true;
+					continue;
+				}
+				if (c == delim && bit == 0) {
+					break;
+				}
+			}
+
+			fcnt++;
+			int idx = cols[fcnt];
+			if (idx >= 0) {
+				rlt[idx] = getCSVFieldString(fieldBuf, buf, nc, i - 1, d);
+				setc++;
+			}
+
+			nc = ++i;
+		}
+
+		if (setc == len - 1) {
+			int idx = cols[++fcnt];
+			rlt[idx] = "";
+		}
+
+		return rlt;
+	}
+
+	private static String getCSVFieldString(ByteBuf field, byte[] value, int start, int end, CsvDialect d) {
+		final byte quote = (byte) d.quote;
+		final byte esc = (byte) d.escape;
+
+		if (d.trim) {
+			while (start <= end && isBlank((char) value[start], d)) {
+				start++;
+			}
+			while (end >= start && isBlank((char) value[end], d)) {
+				end--;
+			}
+		}
+
+		if (start > end) {
+			return "";
+		}
+
+		if (value[start] != quote) {
+			return new String(value, start, end - start + 1, StandardCharsets.ISO_8859_1);
+		}
+		start++;
+		// 默认方言总是去掉最后一个字符, 与字符版本一致(The default dialect always drops the last char, as the char version does)
+		if (end >= start && (d.isDefault() || value[end] == quote)) {
+			end--;
+		}
+
+		field.reset();
+		int copyStart = start;
+		int i = start;
+		for (; i <= end;) {
+			if (value[i] == esc && i < end) {
+				field.append(value, copyStart, i - copyStart);
+				copyStart = i + 1;
+				i += 2;
+			} else {
+				i++;
+			}
+		}
+
+		if (end + 1 > copyStart) {
+			field.append(value, copyStart, end + 1 - copyStart);
+		}
+
+		return new String(field.value, 0, field.count, StandardCharsets.ISO_8859_1);
+	}
+
+	private static boolean isBlank(char c, CsvDialect d) {
+		return (c == ' ' || c == '\t') && c != d.delimiter;
+	}
+
+	/**
+	 * 按方言切分列头, 处理引号、转义和去空格(Split the header on the dialect delimiter, quotes, escapes and trimming resolved)
+	 * 
+	 * <p>
+	 * 与原实现一致, 行尾的空列头不计入(As before, an empty header after a trailing delimiter is not counted).
+	 */
+	public static String[] parseSimple(CharBuf line, CsvDialect d) {
+		final char delim = d.delimiter;
+		final char quote = d.quote;
+		final char esc = d.escape;
+		List<String> l = new ArrayList<>();
+		CharBuf field = null;
 		int copyStart = 0;
-		int curSplit = 0;
 		int end = line.count;
 		char[] buf = line.value;
 
-		int pos = 0;
 		while (copyStart < end) {
+			boolean quoted = false;
+			boolean inq = false;
+			boolean escaped = false;
 			int i = copyStart;
-			for (; i < end && buf[i] != ','; i++)
-				;
-			curSplit = i;
-			if (curSplit == copyStart) {
-				l.add("");
+			for (; i < end; i++) {
+				char c = buf[i];
+				if (escaped) {
+					escaped = false;
+					continue;
+				}
+				if (c == quote) {
+					inq = !inq;
+					quoted = true;
+					continue;
+				}
+				if (c == esc && inq) {
+					escaped = true;
+					continue;
+				}
+				if (c == delim && !inq) {
+					break;
+				}
+			}
+			if (!quoted) {
+				String h = new String(buf, copyStart, i - copyStart);
+				l.add(d.trim ? h.trim() : h);
 			} else {
-				l.add(new String(buf, copyStart, curSplit - copyStart));
+				if (field == null) {
+					field = new CharBuf(64);
+				}
+				l.add(i == copyStart ? "" : getCSVFieldString(field, buf, copyStart, i - 1, d));
 			}
-			pos++;
-			copyStart = curSplit + 1;
+			copyStart = i + 1;
 		}
 
-		return l.toArray(new String[pos]);
+		return l.toArray(new String[l.size()]);
 	}
 
-	static int[] createVidxExclude(String[] headers, String[] exCols) {
+	/**
+	 * 按逗号切分列头, 处理双引号(Split the header on commas, double quotes resolved)
+	 */
+	public static String[] parseSimple(CharBuf line) {
+		return parseSimple(line, CsvDialect.DEFAULT);
+	}
 
-		List<String> cols = new LinkedList<>();
-		for (String h : headers) {
-			cols.add(h);
+	/**
+	 * 只记录投影列的字段位置, 不创建对象(Record the [start, end) span of each projected field, no allocation)
+	 * 
+	 * @param cols
+	 *            idxmap: 原列号到投影列号, -1为不读取(Source column to projected column, -1 to skip)
+	 * @param len
+	 *            投影列数, 缺失的字段位置为-1(Projected column count, missing fields get -1 spans)
+	 * @return 读到的投影列数(Number of projected fields found)
+	 */
+	static int scanFields(CharBuf line, int[] cols, int len, int[] starts, int[] ends, CsvDialect d) {
+		final char delim = d.delimiter;
+		final char quote = d.quote;
+		final char esc = d.escape;
+
+		for (int j = 0; j < len; j++) {
+			starts[j] = -1;
+			ends[j] = -1;
 		}
 
-		for (String h : exCols) {
-			cols.remove(h);
+		char[] buf = line.value;
+		int buflen = line.count;
+		int fcnt = -1;
+		int setc = 0;
+		int nc = 0;
+
+		for (; nc <= buflen && setc < len;) {
+			byte bit = 0x00;
+			boolean escaped = false;
+			char c = 0;
+			int i = nc;
+			for (; i < buflen; i++) {
+				c = buf[i];
+				if (escaped) {
+					escaped = false;
+					continue;
+				}
+				if (c == quote) {
+					bit ^= 0x01;
+					continue;
+				}
+				if (c == esc && bit != 0) {
+					escaped = true;
+					continue;
+				}
+				if (c == delim && bit == 0) {
+					break;
+				}
+			}
+
+			if (++fcnt >= cols.length) {
+				break;
+			}
+			int idx = cols[fcnt];
+			if (idx >= 0) {
+				starts[idx] = nc;
+				ends[idx] = i;
+				setc++;
+			}
+
+			nc = i + 1;
+		}
+
+		return setc;
+	}
+
+	/**
+	 * 字段位置转字符串, 处理引号和转义(String of a field span, quotes and escapes resolved)
+	 */
+	static String fieldString(CharBuf field, char[] value, int start, int end, CsvDialect d) {
+		if (start >= end) {
+			return "";
+		}
+		return d.isDefault() ? getCSVFieldString(field, value, start, end - 1) : getCSVFieldString(field, value, start, end - 1, d);
+	}
+
+	/**
+	 * 把字段内容复制到dst, 处理引号、转义和去空格, 不创建String(Copy the field content into dst, quotes, escapes and trimming
+	 * resolved, no String created)
+	 * 
+	 * @param end
+	 *            不包含; dst至少要有end - start的空间(Exclusive; dst needs room for end - start chars)
+	 * @return dst中的结束位置(End position in dst)
+	 */
+	static int copyField(char[] value, int start, int end, char[] dst, int pos, CsvDialect d) {
+		final char quote = d.quote;
+		final char esc = d.escape;
+		end--;
+
+		if (d.trim) {
+			while (start <= end && isBlank(value[start], d)) {
+				start++;
+			}
+			while (end >= start && isBlank(value[end], d)) {
+				end--;
+			}
+		}
+
+		if (start > end) {
+			return pos;
+		}
+
+		if (value[start] != quote) {
+			System.arraycopy(value, start, dst, pos, end - start + 1);
+			return pos + end - start + 1;
+		}
+		start++;
+		if (end >= start && value[end] == quote) {
+			end--;
+		}
+
+		int copyStart = start;
+		int i = start;
+		for (; i <= end;) {
+			if (value[i] == esc && i < end) {
+				System.arraycopy(value, copyStart, dst, pos, i - copyStart);
+				pos += i - copyStart;
+				copyStart = i + 1;
+				i += 2;
+			} else {
+				i++;
+			}
 		}
 
-		return createVidx(headers, cols.toArray(new String[cols.size()]));
+		if (end + 1 > copyStart) {
+			System.arraycopy(value, copyStart, dst, pos, end + 1 - copyStart);
+			pos += end + 1 - copyStart;
+		}
+		return pos;
+	}
+
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+			1e20, 1e21, 1e22 };
+
+	/**
+	 * 不创建String的数值解析, 结果与Double.parseDouble一致(Parse a double from a char span without allocation, same result as
+	 * Double.parseDouble)
+	 *
+	 * <p>
+	 * 不超过15位有效数字且10的指数不超过22时精确计算, 其它情况回退到Double.parseDouble(Up to 15 significant digits and |exp10| <= 22
+	 * are computed exactly with one rounding, anything else falls back to Double.parseDouble).
+	 */
+	static double parseDouble(char[] b, int start, int end, char quote) {
+		int s = start, e = end;
+		while (s < e && b[s] <= ' ') {
+			s++;
+		}
+		while (e > s && b[e - 1] <= ' ') {
+			e--;
+		}
+		if (e - s >= 2 && b[s] == quote && b[e - 1] == quote) {
+			s++;
+			e--;
+		}
+
+		int i = s;
+		boolean neg = false;
+		if (i < e && (b[i] == '-' || b[i] == '+')) {
+			neg = b[i] == '-';
+			i++;
+		}
+
+		long m = 0;
+		int digits = 0;
+		int exp = 0;
+		boolean any = false;
+		boolean exact = true;
+		char c;
+		for (; i < e; i++) {
+			c = b[i];
+			if (c < '0' || c > '9') {
+				break;
+			}
+			any = true;
+			if (m == 0 && c == '0') {
+				continue;
+			}
+			if (digits < 18) {
+				m = m * 10 + (c - '0');
+				digits++;
+			} else {
+				exp++;
+				exact &= c == '0';
+			}
+		}
+		if (i < e && b[i] == '.') {
+			for (i++; i < e; i++) {
+				c = b[i];
+				if (c < '0' || c > '9') {
+					break;
+				}
+				any = true;
+				if (m == 0 && c == '0') {
+					exp--;
+					continue;
+				}
+				if (digits < 18) {
+					m = m * 10 + (c - '0');
+					digits++;
+					exp--;
+				} else {
+					exact &= c == '0';
+				}
+			}
+		}
+		if (any && i < e && (b[i] == 'e' || b[i] == 'E')) {
+			int j = i + 1;
+			boolean eneg = false;
+			if (j < e && (b[j] == '-' || b[j] == '+')) {
+				eneg = b[j] == '-';
+				j++;
+			}
+			int ev = 0;
+			int k = j;
+			for (; k < e && b[k] >= '0' && b[k] <= '9' && ev < 10000; k++) {
+				ev = ev * 10 + (b[k] - '0');
+			}
+			if (k > j) {
+				exp += eneg ? -ev : ev;
+				i = k;
+			}
+		}
+
+		if (any && i == e && exact) {
+			if (m == 0) {
+				return neg ? -0.0 : 0.0;
+			}
+			if (digits <= 15 && exp >= -22 && exp <= 22) {
+				double d = exp < 0 ? m / POW10[-exp] : m * POW10[exp];
+				return neg ? -d : d;
+			}
+		}
+
+		return Double.parseDouble(new String(b, s, e - s));
+	}
+
+	/**
+	 * 是否为十进制数值, 不含NaN和Infinity(Is the span a decimal number? NaN and Infinity are not)
+	 */
+	static boolean isNumber(char[] b, int start, int end) {
+		int i = start;
+		if (i < end && (b[i] == '-' || b[i] == '+')) {
+			i++;
+		}
+		int digits = 0;
+		for (; i < end && b[i] >= '0' && b[i] <= '9'; i++) {
+			digits++;
+		}
+		if (i < end && b[i] == '.') {
+			for (i++; i < end && b[i] >= '0' && b[i] <= '9'; i++) {
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < end && (b[i] == 'e' || b[i] == 'E')) {
+			i++;
+			if (i < end && (b[i] == '-' || b[i] == '+')) {
+				i++;
+			}
+			int ed = i;
+			for (; i < end && b[i] >= '0' && b[i] <= '9'; i++) {
+			}
+			if (i == ed) {
+				return false;
+			}
+		}
+		return i == end;
+	}
+
+	/**
+	 * 除指定列外的所有列, 按文件顺序(Every column except the given ones, in file order)
+	 */
+	static int[] createVidxExclude(String[] headers, String[] exCols) {
+		Objects.requireNonNull(headers, "Headers must not null");
+		Set<String> ex = new HashSet<>(Arrays.asList(exCols));
+		int[] vidx = new int[headers.length];
+		int n = 0;
+		for (int j = 0; j < headers.length; j++) {
+			if (!ex.contains(headers[j])) {
+				vidx[n++] = j;
+			}
+		}
+		return Arrays.copyOf(vidx, n);
+	}
+
+	/**
+	 * 列名到文件列号, 重名时取第一个(Column name to file column, the first one wins on duplicates)
+	 */
+	static Map<String, Integer> indexOf(String[] headers) {
+		Map<String, Integer> index = new HashMap<>(headers.length * 2);
+		for (int j = 0; j < headers.length; j++) {
+			index.putIfAbsent(headers[j], j);
+		}
+		return index;
 	}
 
 	static int[] createVidx(String[] headers, String[] cols) {
@@ -193,21 +914,20 @@ public class Util {
 			}
 			return vidx;
 		}
+		return createVidx(indexOf(headers), cols);
+	}
 
+	/**
+	 * 按预先建好的列名索引查找, 每列O(1)(Look up through a prepared name index, O(1) per column)
+	 */
+	static int[] createVidx(Map<String, Integer> index, String[] cols) {
 		int[] vidx = new int[cols.length];
-		int m = cols.length;
-		int n = headers.length;
-		for (int i = 0; i < m; i++) {
-			vidx[i] = -1;
-			for (int j = 0; j < n; j++) {
-				if (cols[i].equals(headers[j])) {
-					vidx[i] = j;
-					break;
-				}
-			}
-			if (vidx[i] < 0) {
+		for (int i = 0; i < cols.length; i++) {
+			Integer j = index.get(cols[i]);
+			if (j == null) {
 				throw new IllegalArgumentException(cols[i] + " not found");
 			}
+			vidx[i] = j;
 		}
 		return vidx;
 	}
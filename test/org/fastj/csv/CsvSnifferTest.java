@@ -0,0 +1,86 @@
+package org.fastj.csv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CsvSnifferTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String write(String content) throws Exception {
+		File f = tmp.newFile();
+		Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return f.getPath();
+	}
+
+	@Test
+	public void sampleCutInsideMultibyteCharacter() throws Exception {
+		StringBuilder sb = new StringBuilder("名称;城市;数量\n");
+		for (int i = 0; i < 50; i++) {
+			sb.append("产品").append(i).append(";北京;").append(i * 3).append('\n');
+		}
+		byte[] all = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+		// 每个截断位置, 包括多字节字符中间(Every cut, including ones inside a multibyte character)
+		for (int len = 40; len < all.length; len++) {
+			SniffResult r = CsvSniffer.sniff(all, len, false);
+			assertEquals("cut at " + len, ';', r.getDialect().delimiter);
+			assertEquals("cut at " + len, 3, r.getHeader().length);
+		}
+	}
+
+	@Test
+	public void singleLineCutInsideMultibyteCharacter() throws Exception {
+		byte[] all = "名称,城市,数量,备注".getBytes(StandardCharsets.UTF_8);
+		SniffResult r = CsvSniffer.sniff(all, all.length - 1, false);
+		assertEquals(',', r.getDialect().delimiter);
+		assertTrue(r.getHeader()[3].startsWith("备"));
+	}
+
+	@Test
+	public void readWithHeader() throws Exception {
+		String file = write("id;name;price\n1;a;2.5\n2;b;3.5\n3;c;4.5\n");
+		SniffResult r = CSV.sniff(file);
+		assertTrue(r.hasHeader());
+
+		double[][] m = CSV.readMatrix(file, r, 1, 2);
+		assertEquals(3, m.length);
+		assertArrayEquals(new double[] { 3, 4.5 }, m[2], 0);
+
+		String[][] t = CSV.readCsv(file, r, new String[] { "name" }, false, 1, 2);
+		assertEquals(3, t.length);
+		assertEquals("c", t[2][0]);
+	}
+
+	@Test
+	public void readWithoutHeader() throws Exception {
+		String file = write("1,1,3\n4,5.5,6\n7,8,9\n10,11,12\n");
+		SniffResult r = CSV.sniff(file);
+		assertFalse(r.hasHeader());
+		assertArrayEquals(new String[] { "c0", "c1", "c2" }, r.getHeader());
+		assertEquals(4, r.getSampleRows());
+
+		double[][] m = CSV.readMatrix(file, r, 2, 2);
+		assertEquals(4, m.length);
+		assertArrayEquals(new double[] { 1, 1, 3 }, m[0], 0);
+		assertArrayEquals(new double[] { 10, 11, 12 }, m[3], 0);
+
+		String[][] t = CSV.readCsv(file, r, new String[] { "c1" }, true, 1, 2);
+		assertEquals(5, t.length);
+		assertEquals("c1", t[0][0]);
+		assertEquals("1", t[1][0]);
+		assertEquals("5.5", t[2][0]);
+	}
+
+}
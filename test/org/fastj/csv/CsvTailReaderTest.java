@@ -0,0 +1,87 @@
+package org.fastj.csv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 追加、截断及截断后又写到超过原提交位置时的增量读取(Incremental reads across appends, truncation, and a file truncated and rewritten
+ * past the old committed offset)
+ */
+public class CsvTailReaderTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	static final String[] COLS = { "id", "name" };
+
+	@Test
+	public void append() throws Exception {
+		File f = tmp.newFile("tail.csv");
+		write(f, "id,name\n1,a\n2,b\n3,");
+		CsvTailReader r = new CsvTailReader(f.getPath(), COLS, 0, null);
+		assertArrayEquals(new String[][] { { "1", "a" }, { "2", "b" } }, r.poll());
+
+		append(f, "c\n4,d\n");
+		assertArrayEquals(new String[][] { { "3", "c" }, { "4", "d" } }, r.poll());
+		assertEquals(0, r.poll().length);
+	}
+
+	@Test
+	public void truncated() throws Exception {
+		File f = tmp.newFile("tail.csv");
+		write(f, "id,name\n1,a\n2,b\n");
+		CsvTailReader r = new CsvTailReader(f.getPath(), COLS, 0, null);
+		assertEquals(2, r.poll().length);
+
+		write(f, "id,name\n9,z\n");
+		assertArrayEquals(new String[][] { { "9", "z" } }, r.poll());
+	}
+
+	@Test
+	public void rewrittenPastOffset() throws Exception {
+		File f = tmp.newFile("tail.csv");
+		write(f, "id,name\n1,a\n2,b\n");
+		CsvTailReader r = new CsvTailReader(f.getPath(), COLS, 0, null);
+		assertEquals(2, r.poll().length);
+
+		// 大小超过原提交位置, 只比较大小时会从中间读起(Larger than the old offset, a size check alone would resume mid-file)
+		write(f, "id,name\n7,x\n8,y\n9,zz\n");
+		assertArrayEquals(new String[][] { { "7", "x" }, { "8", "y" }, { "9", "zz" } }, r.poll());
+	}
+
+	@Test
+	public void resume() throws Exception {
+		File f = tmp.newFile("tail.csv");
+		write(f, "id,name\n1,a\n2,b\n");
+		CsvTailReader r = new CsvTailReader(f.getPath(), COLS, 0, null);
+		assertEquals(2, r.poll().length);
+		long offset = r.getOffset();
+		long fingerprint = r.getFingerprint();
+
+		append(f, "3,c\n");
+		r = new CsvTailReader(f.getPath(), COLS, 0, null, offset, fingerprint);
+		assertArrayEquals(new String[][] { { "3", "c" } }, r.poll());
+
+		write(f, "id,name\n5,e\n6,f\n7,g\n");
+		r = new CsvTailReader(f.getPath(), COLS, 0, null, offset, fingerprint);
+		assertEquals(3, r.poll().length);
+	}
+
+	private static void write(File f, String s) throws Exception {
+		Files.write(f.toPath(), s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void append(File f, String s) throws Exception {
+		Files.write(f.toPath(), s.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.fastj.csv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 很小的预算下溢出和背压读取都按顺序读完(Spill and backpressure reads under a tiny budget finish, in order)
+ */
+public class MemoryBudgetTest {
+
+	@ClassRule
+	public static TemporaryFolder tmp = new TemporaryFolder();
+
+	static final String[] COLS = { "id", "name" };
+	static final long BUDGET = 16 * 1024;
+	static final int ROWS = 50000;
+	static String file;
+
+	@BeforeClass
+	public static void write() throws Exception {
+		StringBuilder sb = new StringBuilder("id,name\n");
+		for (int i = 0; i < ROWS; i++) {
+			sb.append(i).append(",n").append(i).append('\n');
+		}
+		File f = tmp.newFile("rows.csv");
+		Files.write(f.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		file = f.getPath();
+	}
+
+	@Test
+	public void spill() throws Exception {
+		for (int p = 1; p <= 3; p++) {
+			try (RowCursor<String[]> c = CSV.openCsv(file, COLS, 2, p, 0, null, BUDGET)) {
+				// 让处理线程先超出预算(Let the parse tasks run past the budget first)
+				Thread.sleep(200);
+				check(c, "spill, parseTH " + p);
+			}
+		}
+	}
+
+	@Test
+	public void backpressure() throws Exception {
+		for (int p = 1; p <= 3; p++) {
+			try (FileChannel ch = FileChannel.open(new File(file).toPath());
+					RowCursor<String[]> c = CSV.openCsv(ch, null, null, COLS, p, 0, BUDGET)) {
+				Thread.sleep(200);
+				check(c, "backpressure, parseTH " + p);
+			}
+		}
+	}
+
+	private static void check(RowCursor<String[]> c, String msg) {
+		int i = 0;
+		while (c.hasNext()) {
+			assertArrayEquals(msg + ", row " + i, new String[] { String.valueOf(i), "n" + i }, c.next());
+			i++;
+		}
+		assertEquals(msg, ROWS, i);
+	}
+
+}
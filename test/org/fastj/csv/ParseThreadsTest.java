@@ -0,0 +1,104 @@
+package org.fastj.csv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 各处理线程数的结果与单线程读取相同, 包括非2的幂(Every parse thread count, powers of 2 or not, gives the serial result)
+ */
+public class ParseThreadsTest {
+
+	@ClassRule
+	public static TemporaryFolder tmp = new TemporaryFolder();
+
+	static final String[] COLS = { "id", "name", "v" };
+	static String file;
+	static String[][] serial;
+
+	@BeforeClass
+	public static void write() throws Exception {
+		StringBuilder sb = new StringBuilder("id,name,v,skip\n");
+		for (int i = 0; i < 30001; i++) {
+			sb.append(i).append(",n").append(i % 97).append(',').append(i * 0.5).append(",x\n");
+		}
+		File f = tmp.newFile("rows.csv");
+		Files.write(f.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		file = f.getPath();
+		try (InputStream in = new FileInputStream(file)) {
+			serial = CSV.readCsvSerial(in, StandardCharsets.UTF_8, CsvDialect.DEFAULT, COLS, false, 0);
+		}
+		assertEquals(30001, serial.length);
+	}
+
+	@Test
+	public void readCsv() throws Exception {
+		for (int p = 1; p <= 4; p++) {
+			for (int r = 1; r <= 2; r++) {
+				String[][] rows = CSV.readCsv(file, COLS, false, r, p, 0);
+				assertArrayEquals("readTH " + r + ", parseTH " + p, serial, rows);
+			}
+		}
+	}
+
+	@Test
+	public void readMatrix() throws Exception {
+		for (int p = 1; p <= 4; p++) {
+			double[][] m = CSV.readMatrix(file, new String[] { "id", "v" }, 2, p, 0);
+			assertEquals(serial.length, m.length);
+			for (int i = 0; i < m.length; i++) {
+				assertEquals(Double.parseDouble(serial[i][0]), m[i][0], 0);
+				assertEquals(Double.parseDouble(serial[i][2]), m[i][1], 0);
+			}
+		}
+	}
+
+	@Test
+	public void readTableAndRows() throws Exception {
+		for (int p = 1; p <= 4; p++) {
+			CsvTable t = CSV.readTable(file, COLS, 2, p, 0, null);
+			assertArrayEquals("parseTH " + p, serial, t.toArray());
+			CsvRow[] rows = CSV.readRows(file, COLS, 2, p, 0, null);
+			assertEquals(serial.length, rows.length);
+			for (int i = 0; i < rows.length; i++) {
+				assertArrayEquals(serial[i], rows[i].toArray());
+			}
+		}
+	}
+
+	@Test
+	public void readColumns() throws Exception {
+		for (int p = 1; p <= 4; p++) {
+			TypedColumns c = CSV.readColumns(file, new ColumnMapping().asLong("id").asString("name"), 2, p, 0, null);
+			assertEquals(serial.length, c.size());
+			for (int i = 0; i < serial.length; i++) {
+				assertEquals(Long.parseLong(serial[i][0]), c.getLongs("id")[i]);
+				assertEquals(serial[i][1], c.getObjects("name")[i]);
+			}
+		}
+	}
+
+	@Test
+	public void openCsv() throws Exception {
+		for (int p = 1; p <= 4; p++) {
+			int i = 0;
+			try (RowCursor<String[]> c = CSV.openCsv(file, COLS, 2, p, 0, null, 1 << 20)) {
+				while (c.hasNext()) {
+					assertArrayEquals("parseTH " + p + ", row " + i, serial[i++], c.next());
+				}
+			}
+			assertEquals(serial.length, i);
+		}
+	}
+
+}